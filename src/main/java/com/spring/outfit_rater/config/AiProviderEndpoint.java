@@ -0,0 +1,24 @@
+package com.spring.outfit_rater.config;
+
+import com.spring.outfit_rater.service.AiProviderGuard;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "aiprovider")
+public class AiProviderEndpoint {
+
+    private final AiProviderGuard providerGuard;
+
+    public AiProviderEndpoint(AiProviderGuard providerGuard) {
+        this.providerGuard = providerGuard;
+    }
+
+    @ReadOperation
+    public Map<String, Object> providerState() {
+        return providerGuard.describe();
+    }
+}
@@ -0,0 +1,79 @@
+package com.spring.outfit_rater.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+@Slf4j
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties,
+                                              ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        DataSourceBuilder<HikariDataSource> builder = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class);
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        if (details != null) {
+            builder.url(details.getJdbcUrl())
+                    .username(details.getUsername())
+                    .password(details.getPassword())
+                    .driverClassName(details.getDriverClassName());
+        }
+
+        HikariDataSource dataSource = builder.build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("datasource.replica.url")
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.getDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReplicaLagGuard> lagGuard) {
+        LazyConnectionDataSourceProxy routingDataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+
+        DataSource replica = replicaDataSource.getIfAvailable();
+        if (replica != null) {
+            routingDataSource.setReadOnlyDataSource(
+                    new LagAwareReplicaDataSource(replica, primaryDataSource, lagGuard.getObject()));
+            log.info("Read-only transactions will be routed to the replica pool");
+        } else {
+            log.info("No replica configured, all transactions use the primary pool");
+        }
+        return routingDataSource;
+    }
+}
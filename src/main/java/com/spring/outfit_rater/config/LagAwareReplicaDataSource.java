@@ -0,0 +1,31 @@
+package com.spring.outfit_rater.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+class LagAwareReplicaDataSource extends DelegatingDataSource {
+
+    private final DataSource primaryDataSource;
+    private final ReplicaLagGuard lagGuard;
+
+    LagAwareReplicaDataSource(DataSource replicaDataSource, DataSource primaryDataSource, ReplicaLagGuard lagGuard) {
+        super(replicaDataSource);
+        this.primaryDataSource = primaryDataSource;
+        this.lagGuard = lagGuard;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return lagGuard.routeToReplica() ? super.getConnection() : primaryDataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return lagGuard.routeToReplica()
+                ? super.getConnection(username, password)
+                : primaryDataSource.getConnection(username, password);
+    }
+}
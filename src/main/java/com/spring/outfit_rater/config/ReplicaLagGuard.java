@@ -0,0 +1,133 @@
+package com.spring.outfit_rater.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class ReplicaLagGuard {
+
+    private static final String REPLICA_LAG_MS = """
+            SELECT COALESCE(CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                   ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END, 0)
+            """;
+
+    private final ObjectProvider<DataSource> replicaDataSource;
+    private final Cache<String, Boolean> recentWriters;
+    private final ThreadLocal<Boolean> primaryPinned = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final long maxLagMs;
+    private final long maxProbeAgeNanos;
+
+    private volatile long replicaLagMs = Long.MAX_VALUE;
+    private volatile long lastProbeNanos;
+
+    public ReplicaLagGuard(@Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                           MeterRegistry meterRegistry,
+                           @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMs,
+                           @Value("${datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs,
+                           @Value("${datasource.replica.max-tracked-writers:100000}") long maxTrackedWriters,
+                           @Value("${datasource.replica.lag-probe-interval-ms:1000}") long probeIntervalMs) {
+        this.replicaDataSource = replicaDataSource;
+        this.maxLagMs = maxLagMs;
+        this.maxProbeAgeNanos = Duration.ofMillis(probeIntervalMs * 3).toNanos();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedWriters)
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMs))
+                .build();
+
+        Gauge.builder("datasource.replica.lag", this, guard -> {
+                    long lag = guard.currentLagMs();
+                    return lag == Long.MAX_VALUE ? -1 : lag;
+                })
+                .description("Recently measured replication lag of the replica in milliseconds, -1 when unknown or stale")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.replicaReads = Counter.builder("datasource.routing.reads")
+                .tag("target", "replica")
+                .description("Read-only connections served by the replica pool")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("datasource.routing.reads")
+                .tag("target", "primary")
+                .description("Read-only connections sent back to the primary pool")
+                .register(meterRegistry);
+    }
+
+    public void recordWrite(String userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public <T> T readAfterOwnWrites(String userId, Supplier<T> read) {
+        if (userId == null || recentWriters.getIfPresent(userId) == null) {
+            return read.get();
+        }
+        return readFromPrimary(read);
+    }
+
+    public <T> T readFromPrimary(Supplier<T> read) {
+        if (primaryPinned.get()) {
+            return read.get();
+        }
+
+        primaryPinned.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            primaryPinned.remove();
+        }
+    }
+
+    boolean routeToReplica() {
+        if (primaryPinned.get() || currentLagMs() > maxLagMs) {
+            primaryReads.increment();
+            return false;
+        }
+        replicaReads.increment();
+        return true;
+    }
+
+    // A measurement the probe has not refreshed recently says nothing about the replica now
+    private long currentLagMs() {
+        return System.nanoTime() - lastProbeNanos > maxProbeAgeNanos ? Long.MAX_VALUE : replicaLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-probe-interval-ms:1000}")
+    public void probeReplicaLag() {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null) {
+            return;
+        }
+
+        try {
+            Double lag = new JdbcTemplate(replica).queryForObject(REPLICA_LAG_MS, Double.class);
+            long measured = lag != null ? lag.longValue() : 0L;
+            if (measured > maxLagMs && replicaLagMs <= maxLagMs) {
+                log.warn("Replica lag {}ms exceeds {}ms, routing reads to the primary", measured, maxLagMs);
+            }
+            replicaLagMs = measured;
+            lastProbeNanos = System.nanoTime();
+        } catch (Exception e) {
+            if (replicaLagMs != Long.MAX_VALUE) {
+                log.warn("Replica lag probe failed, routing reads to the primary", e);
+            }
+            replicaLagMs = Long.MAX_VALUE;
+        }
+    }
+}
@@ -11,6 +11,8 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -23,6 +25,7 @@ public class WebSocketEventListener {
     private final AtomicInteger globalConnectionCount = new AtomicInteger(0);
     private final ConcurrentHashMap<String, String> sessionToUser = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, AtomicInteger> roomConnectionCounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, String>> sessionRoomSubscriptions = new ConcurrentHashMap<>();
 
     public WebSocketEventListener(SimpMessagingTemplate messagingTemplate, RoomService roomService) {
         this.messagingTemplate = messagingTemplate;
@@ -47,6 +50,11 @@ public class WebSocketEventListener {
         
         String userId = sessionToUser.remove(sessionId);
         
+        Map<String, String> roomSubscriptions = sessionRoomSubscriptions.remove(sessionId);
+        if (roomSubscriptions != null) {
+            roomSubscriptions.values().forEach(this::leaveRoomConnection);
+        }
+        
         int currentConnections = globalConnectionCount.decrementAndGet();
         log.info("Total active connections: {}", currentConnections);
         
@@ -66,6 +74,8 @@ public class WebSocketEventListener {
         if (destination != null && destination.startsWith("/topic/room/")) {
             String roomCode = extractRoomCodeFromDestination(destination);
             if (roomCode != null) {
+                sessionRoomSubscriptions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>())
+                        .put(headerAccessor.getSubscriptionId(), roomCode);
                 AtomicInteger roomCount = roomConnectionCounts.computeIfAbsent(roomCode, k -> new AtomicInteger(0));
                 int currentRoomConnections = roomCount.incrementAndGet();
                 
@@ -80,26 +90,14 @@ public class WebSocketEventListener {
     @EventListener
     public void handleUnsubscribeEvent(SessionUnsubscribeEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
-        String destination = headerAccessor.getDestination();
         String sessionId = headerAccessor.getSessionId();
         
-        if (destination != null && destination.startsWith("/topic/room/")) {
-            String roomCode = extractRoomCodeFromDestination(destination);
-            if (roomCode != null) {
-                AtomicInteger roomCount = roomConnectionCounts.get(roomCode);
-                if (roomCount != null) {
-                    int currentRoomConnections = roomCount.decrementAndGet();
-                    
-                    log.info("User unsubscribed from room {} (Session: {}). Room connections: {}", 
-                            roomCode, sessionId, currentRoomConnections);
-                    
-                    if (currentRoomConnections <= 0) {
-                        roomConnectionCounts.remove(roomCode);
-                    } else {
-                        broadcastRoomConnectionCount(roomCode, currentRoomConnections);
-                    }
-                }
-            }
+        // UNSUBSCRIBE frames carry only the subscription id, so resolve the room from SUBSCRIBE
+        Map<String, String> roomSubscriptions = sessionRoomSubscriptions.get(sessionId);
+        String roomCode = roomSubscriptions != null ? roomSubscriptions.remove(headerAccessor.getSubscriptionId()) : null;
+        if (roomCode != null) {
+            log.info("User unsubscribed from room {} (Session: {})", roomCode, sessionId);
+            leaveRoomConnection(roomCode);
         }
     }
 
@@ -117,6 +115,28 @@ public class WebSocketEventListener {
         return count != null ? count.get() : 0;
     }
 
+    public Map<String, Integer> getRoomConnectionCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        roomConnectionCounts.forEach((roomCode, count) -> counts.put(roomCode, count.get()));
+        return counts;
+    }
+
+    private void leaveRoomConnection(String roomCode) {
+        AtomicInteger roomCount = roomConnectionCounts.get(roomCode);
+        if (roomCount == null) {
+            return;
+        }
+        
+        int currentRoomConnections = roomCount.decrementAndGet();
+        log.debug("Room {} connections: {}", roomCode, currentRoomConnections);
+        
+        if (currentRoomConnections <= 0) {
+            roomConnectionCounts.remove(roomCode, roomCount);
+        } else {
+            broadcastRoomConnectionCount(roomCode, currentRoomConnections);
+        }
+    }
+
     private void broadcastGlobalConnectionCount(int count) {
         try {
             String message = String.format("👥 %d fashion enthusiasts online", count);
@@ -138,8 +158,8 @@ public class WebSocketEventListener {
     private String extractRoomCodeFromDestination(String destination) {
         if (destination.startsWith("/topic/room/")) {
             String[] parts = destination.split("/");
-            if (parts.length >= 4) {
-                return parts[3];
+            if (parts.length == 4) {
+                return parts[3].toUpperCase();
             }
         }
         return null;
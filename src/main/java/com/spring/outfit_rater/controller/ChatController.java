@@ -1,19 +1,41 @@
 package com.spring.outfit_rater.controller;
 
 import com.spring.outfit_rater.dto.ChatMessageDto;
+import com.spring.outfit_rater.dto.ImageUploadDto;
+import com.spring.outfit_rater.exception.UploadRejectedException;
 import com.spring.outfit_rater.service.ChatService;
+import com.spring.outfit_rater.service.GlobalFeedCache;
 import com.spring.outfit_rater.service.RoomService;
 import com.spring.outfit_rater.service.StorageService;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @Slf4j
@@ -22,11 +44,28 @@ public class ChatController {
     private final ChatService chatService;
     private final StorageService storageService;
     private final RoomService roomService;
+    private final GlobalFeedCache globalFeedCache;
+    private final ThreadPoolExecutor exportExecutor;
+    private final long exportTimeoutMs;
 
-    public ChatController(ChatService chatService, StorageService storageService, RoomService roomService) {
+    public ChatController(ChatService chatService, StorageService storageService, RoomService roomService,
+                          GlobalFeedCache globalFeedCache,
+                          @Value("${chat.export.max-concurrent:4}") int maxConcurrentExports,
+                          @Value("${chat.export.timeout-minutes:10}") long exportTimeoutMinutes) {
         this.chatService = chatService;
         this.storageService = storageService;
         this.roomService = roomService;
+        this.globalFeedCache = globalFeedCache;
+        this.exportTimeoutMs = Duration.ofMinutes(exportTimeoutMinutes).toMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.exportExecutor = new ThreadPoolExecutor(
+                maxConcurrentExports, maxConcurrentExports,
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> new Thread(runnable, "room-export-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.exportExecutor.allowCoreThreadTimeOut(true);
     }
 
     @GetMapping("/")
@@ -65,16 +104,24 @@ public class ChatController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
-            String imageUrl = storageService.uploadImage(file);
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "imageUrl", imageUrl
-            ));
+            ImageUploadDto upload = storageService.uploadImage(file);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("imageUrl", upload.getImageUrl());
+            response.put("thumbnailUrl", upload.getThumbnailUrl());
+            return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "success", false,
                 "message", e.getMessage()
             ));
+        } catch (UploadRejectedException e) {
+            log.warn("Upload rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "success", false,
+                "message", e.getMessage(),
+                "errorCode", e.getErrorCode()
+            ));
         } catch (Exception e) {
             log.error("Upload failed", e);
             return ResponseEntity.internalServerError().body(Map.of(
@@ -86,30 +133,102 @@ public class ChatController {
 
     @GetMapping("/api/messages/recent")
     @ResponseBody
-    public ResponseEntity<List<ChatMessageDto>> getRecentMessages() {
-        List<ChatMessageDto> messages = chatService.getRecentPublicMessages();
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<byte[]> getRecentMessages(ServletWebRequest webRequest) {
+        GlobalFeedCache.Snapshot feed = globalFeedCache.snapshot();
+        
+        // Handles weak validators, lists and "*" in If-None-Match; the 304 and its ETag are written here
+        if (webRequest.checkNotModified(feed.etag())) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            return null;
+        }
+        
+        return ResponseEntity.ok()
+                .eTag(feed.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(feed.json());
     }
 
     @GetMapping("/api/messages/room/{roomCode}")
     @ResponseBody
     public ResponseEntity<List<ChatMessageDto>> getRoomMessages(@PathVariable String roomCode,
                                                                @RequestParam(defaultValue = "50") int limit,
+                                                               @RequestParam(required = false) Long before,
+                                                               @RequestParam(required = false) Long after,
                                                                HttpServletRequest request) {
         String userId = getUserId(request);
         
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        
         if (!roomService.isUserInRoom(roomCode, userId)) {
             return ResponseEntity.badRequest().body(null);
         }
         
-        List<ChatMessageDto> messages = chatService.getRoomMessages(roomCode, limit);
+        List<ChatMessageDto> messages = chatService.getRoomMessages(roomCode, before, after, limit);
         return ResponseEntity.ok(messages);
     }
 
+    @GetMapping("/api/messages/room/{roomCode}/export")
+    @ResponseBody
+    public ResponseEntity<ResponseBodyEmitter> exportRoomMessages(@PathVariable String roomCode,
+                                                                  @RequestParam(defaultValue = "false") boolean gzip,
+                                                                  HttpServletRequest request) {
+        String userId = getUserId(request);
+        
+        if (!roomService.isUserInRoom(roomCode, userId)) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        
+        String upperRoomCode = roomCode.toUpperCase();
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_NDJSON;
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMs);
+        
+        try {
+            exportExecutor.execute(() -> {
+                try {
+                    OutputStream output = new EmitterOutputStream(emitter, contentType);
+                    long exported;
+                    if (gzip) {
+                        GZIPOutputStream compressed = new GZIPOutputStream(output, 8192, true);
+                        exported = chatService.exportRoomMessages(upperRoomCode, compressed);
+                        compressed.finish();
+                        output.flush();
+                    } else {
+                        exported = chatService.exportRoomMessages(upperRoomCode, output);
+                    }
+                    emitter.complete();
+                    log.info("Exported {} messages from room {} for user {}", exported, upperRoomCode, userId);
+                } catch (Exception e) {
+                    log.warn("Export of room {} for user {} failed: {}", upperRoomCode, userId, e.getMessage());
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Rejected export of room {} for user {}, {} exports already running",
+                    upperRoomCode, userId, exportExecutor.getActiveCount());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(null);
+        }
+        
+        String filename = "room-" + upperRoomCode + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(emitter);
+    }
+
     @GetMapping("/api/messages/{userId}")
     @ResponseBody
-    public ResponseEntity<List<ChatMessageDto>> getUserMessages(@PathVariable String userId) {
-        List<ChatMessageDto> messages = chatService.getUserConversation(userId);
+    public ResponseEntity<List<ChatMessageDto>> getUserMessages(@PathVariable String userId,
+                                                               @RequestParam(defaultValue = "50") int limit,
+                                                               @RequestParam(required = false) Long before,
+                                                               @RequestParam(required = false) Long after) {
+        if (before != null && after != null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        
+        List<ChatMessageDto> messages = chatService.getUserConversation(userId, before, after, limit);
         return ResponseEntity.ok(messages);
     }
 
@@ -117,10 +236,13 @@ public class ChatController {
     @ResponseBody
     public ResponseEntity<List<ChatMessageDto>> getUserRoomMessages(@PathVariable String userId,
                                                                    @PathVariable String roomCode,
+                                                                   @RequestParam(defaultValue = "50") int limit,
+                                                                   @RequestParam(required = false) Long before,
+                                                                   @RequestParam(required = false) Long after,
                                                                    HttpServletRequest request) {
         String requestUserId = getUserId(request);
         
-        if (!requestUserId.equals(userId)) {
+        if (!requestUserId.equals(userId) || before != null && after != null) {
             return ResponseEntity.badRequest().body(null);
         }
         
@@ -128,7 +250,7 @@ public class ChatController {
             return ResponseEntity.badRequest().body(null);
         }
         
-        List<ChatMessageDto> messages = chatService.getUserRoomConversation(userId, roomCode);
+        List<ChatMessageDto> messages = chatService.getUserRoomConversation(userId, roomCode, before, after, limit);
         return ResponseEntity.ok(messages);
     }
 
@@ -166,4 +288,29 @@ public class ChatController {
         }
         return request.getRemoteAddr();
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdown() {
+        exportExecutor.shutdownNow();
+    }
+
+    private static class EmitterOutputStream extends ByteArrayOutputStream {
+
+        private final ResponseBodyEmitter emitter;
+        private final MediaType contentType;
+
+        EmitterOutputStream(ResponseBodyEmitter emitter, MediaType contentType) {
+            super(64 * 1024);
+            this.emitter = emitter;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                emitter.send(toByteArray(), contentType);
+                reset();
+            }
+        }
+    }
+}
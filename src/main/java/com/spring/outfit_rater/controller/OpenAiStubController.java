@@ -0,0 +1,235 @@
+package com.spring.outfit_rater.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@Profile("ai-stub")
+@Slf4j
+public class OpenAiStubController {
+
+    private static final String STUB_ROAST = "Rating: 6/10 💀 The fit is giving 'I got dressed in the dark but with confidence'. " +
+            "The colors are fighting for their lives and the jacket is doing all the heavy lifting. " +
+            "One thing that doesn't make me cry: those shoes are actually clean ✨ " +
+            "Tips: pick ONE statement piece, get the hem tailored, and please retire that belt 🔥";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+
+    @Value("${ai.stub.latency.distribution:lognormal}")
+    private String latencyDistribution;
+
+    @Value("${ai.stub.latency.median-ms:1500}")
+    private long medianLatencyMs;
+
+    @Value("${ai.stub.latency.sigma:0.5}")
+    private double latencySigma;
+
+    @Value("${ai.stub.latency.min-ms:200}")
+    private long minLatencyMs;
+
+    @Value("${ai.stub.latency.max-ms:15000}")
+    private long maxLatencyMs;
+
+    @Value("${ai.stub.stream.token-delay-ms:30}")
+    private long tokenDelayMs;
+
+    @Value("${ai.stub.error-rate:0.0}")
+    private double errorRate;
+
+    @Value("${ai.stub.rate-limit-rate:0.0}")
+    private double rateLimitRate;
+
+    public OpenAiStubController(@Value("${ai.stub.scheduler-threads:4}") int schedulerThreads) {
+        this.scheduler = Executors.newScheduledThreadPool(schedulerThreads);
+        log.warn("OpenAI stub is active - AI requests will be answered locally with canned roasts");
+    }
+
+    @PostMapping(value = "/v1/chat/completions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> chatCompletions(@RequestBody JsonNode request) {
+        String model = request.path("model").asText("gpt-4o");
+        boolean stream = request.path("stream").asBoolean(false);
+        long latencyMs = sampleLatencyMs();
+
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < rateLimitRate) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(delayedJson(error("Rate limit reached for requests", "rate_limit_exceeded"), minLatencyMs));
+        }
+        if (roll < rateLimitRate + errorRate) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(delayedJson(error("The server had an error while processing your request", "server_error"), latencyMs));
+        }
+
+        if (stream) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_EVENT_STREAM)
+                    .body(streamCompletion(model, latencyMs));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(delayedJson(completion(model), latencyMs));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private String completion(String model) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("role", "assistant");
+        message.put("content", STUB_ROAST);
+
+        ObjectNode choice = objectMapper.createObjectNode();
+        choice.put("index", 0);
+        choice.set("message", message);
+        choice.put("finish_reason", "stop");
+
+        ObjectNode response = baseResponse("chat.completion", model);
+        response.set("choices", objectMapper.createArrayNode().add(choice));
+        response.set("usage", usage());
+        return response.toString();
+    }
+
+    private ResponseBodyEmitter delayedJson(String body, long latencyMs) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(latencyMs + 30_000);
+
+        scheduler.schedule(() -> {
+            try {
+                emitter.send(body, MediaType.APPLICATION_JSON);
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }, latencyMs, TimeUnit.MILLISECONDS);
+
+        return emitter;
+    }
+
+    private SseEmitter streamCompletion(String model, long firstTokenLatencyMs) {
+        List<String> tokens = tokenize(STUB_ROAST);
+        SseEmitter emitter = new SseEmitter(firstTokenLatencyMs + tokens.size() * tokenDelayMs + 30_000);
+        String id = "chatcmpl-stub-" + UUID.randomUUID();
+
+        for (int i = 0; i <= tokens.size(); i++) {
+            int index = i;
+            scheduler.schedule(() -> {
+                try {
+                    if (index < tokens.size()) {
+                        emitter.send(SseEmitter.event().data(chunk(id, model, tokens.get(index), index == 0, null)));
+                    } else {
+                        emitter.send(SseEmitter.event().data(chunk(id, model, null, false, "stop")));
+                        emitter.send(SseEmitter.event().data("[DONE]"));
+                        emitter.complete();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }, firstTokenLatencyMs + i * tokenDelayMs, TimeUnit.MILLISECONDS);
+        }
+
+        return emitter;
+    }
+
+    private long sampleLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double sample = switch (latencyDistribution.toLowerCase()) {
+            case "fixed" -> medianLatencyMs;
+            case "uniform" -> minLatencyMs + random.nextDouble() * (maxLatencyMs - minLatencyMs);
+            default -> medianLatencyMs * Math.exp(latencySigma * random.nextGaussian());
+        };
+        return Math.max(minLatencyMs, Math.min(maxLatencyMs, Math.round(sample)));
+    }
+
+    private String chunk(String id, String model, String content, boolean first, String finishReason) {
+        ObjectNode delta = objectMapper.createObjectNode();
+        if (first) {
+            delta.put("role", "assistant");
+        }
+        if (content != null) {
+            delta.put("content", content);
+        }
+
+        ObjectNode choice = objectMapper.createObjectNode();
+        choice.put("index", 0);
+        choice.set("delta", delta);
+        if (finishReason != null) {
+            choice.put("finish_reason", finishReason);
+        } else {
+            choice.putNull("finish_reason");
+        }
+
+        ObjectNode response = baseResponse("chat.completion.chunk", model);
+        response.put("id", id);
+        response.set("choices", objectMapper.createArrayNode().add(choice));
+        return response.toString();
+    }
+
+    private ObjectNode baseResponse(String object, String model) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", "chatcmpl-stub-" + UUID.randomUUID());
+        response.put("object", object);
+        response.put("created", System.currentTimeMillis() / 1000);
+        response.put("model", model);
+        return response;
+    }
+
+    private ObjectNode usage() {
+        int completionTokens = tokenize(STUB_ROAST).size();
+        ObjectNode usage = objectMapper.createObjectNode();
+        usage.put("prompt_tokens", 250);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", 250 + completionTokens);
+        return usage;
+    }
+
+    private String error(String message, String code) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("message", message);
+        error.put("type", code);
+        error.put("code", code);
+
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("error", error);
+        return body.toString();
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == ' ') {
+                tokens.add(text.substring(start, i));
+                start = i;
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,6 +1,7 @@
 package com.spring.outfit_rater.controller;
 
 import com.spring.outfit_rater.dto.*;
+import com.spring.outfit_rater.service.HotRoomIndex;
 import com.spring.outfit_rater.service.RoomService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,9 +18,11 @@ import java.util.Map;
 public class RoomController {
 
     private final RoomService roomService;
+    private final HotRoomIndex hotRoomIndex;
 
-    public RoomController(RoomService roomService) {
+    public RoomController(RoomService roomService, HotRoomIndex hotRoomIndex) {
         this.roomService = roomService;
+        this.hotRoomIndex = hotRoomIndex;
     }
 
     @PostMapping("/create")
@@ -91,6 +94,21 @@ public class RoomController {
                 )));
     }
 
+    @GetMapping("/discover")
+    public ResponseEntity<Map<String, Object>> discoverRooms(@RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "20") int size) {
+        HotRoomIndex.Snapshot snapshot = hotRoomIndex.getSnapshot();
+        List<HotRoomDto> rooms = hotRoomIndex.getPage(snapshot, page, size);
+        
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "rooms", rooms,
+                "page", Math.max(page, 0),
+                "total", snapshot.rooms().size(),
+                "generatedAt", snapshot.generatedAt()
+        ));
+    }
+
     @GetMapping("/my-rooms")
     public ResponseEntity<Map<String, Object>> getMyRooms(HttpServletRequest httpRequest) {
         String userId = getUserId(httpRequest);
@@ -160,7 +178,7 @@ public class RoomController {
         
         return ResponseEntity.ok(Map.of(
                 "success", true,
-                "exists", roomService.getRoomByCode(roomCode).isPresent(),
+                "exists", roomService.roomExists(roomCode),
                 "canJoin", canJoin,
                 "isParticipant", isParticipant
         ));
@@ -2,17 +2,25 @@ package com.spring.outfit_rater.controller;
 
 import com.spring.outfit_rater.dto.ChatMessageDto;
 import com.spring.outfit_rater.model.ChatMessage;
+import com.spring.outfit_rater.service.AiJobExecutor;
 import com.spring.outfit_rater.service.AiService;
 import com.spring.outfit_rater.service.ChatService;
+import com.spring.outfit_rater.service.GlobalFeedCache;
+import com.spring.outfit_rater.service.HotRoomIndex;
+import com.spring.outfit_rater.service.MessageReactionService;
+import com.spring.outfit_rater.service.RoomMessageBuffer;
 import com.spring.outfit_rater.service.RoomService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Controller
 @Slf4j
@@ -22,13 +30,29 @@ public class WebSocketController {
     private final AiService aiService;
     private final RoomService roomService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final AiJobExecutor aiJobExecutor;
+    private final RoomMessageBuffer roomMessageBuffer;
+    private final GlobalFeedCache globalFeedCache;
+    private final MessageReactionService reactionService;
+    private final HotRoomIndex hotRoomIndex;
+
+    @Value("${ai.streaming.enabled:true}")
+    private boolean streamingEnabled;
 
     public WebSocketController(ChatService chatService, AiService aiService, 
-                             RoomService roomService, SimpMessagingTemplate messagingTemplate) {
+                             RoomService roomService, SimpMessagingTemplate messagingTemplate,
+                             AiJobExecutor aiJobExecutor, RoomMessageBuffer roomMessageBuffer,
+                             GlobalFeedCache globalFeedCache, MessageReactionService reactionService,
+                             HotRoomIndex hotRoomIndex) {
         this.chatService = chatService;
         this.aiService = aiService;
         this.roomService = roomService;
         this.messagingTemplate = messagingTemplate;
+        this.aiJobExecutor = aiJobExecutor;
+        this.roomMessageBuffer = roomMessageBuffer;
+        this.globalFeedCache = globalFeedCache;
+        this.reactionService = reactionService;
+        this.hotRoomIndex = hotRoomIndex;
     }
 
     @MessageMapping("/chat.message")
@@ -42,6 +66,7 @@ public class WebSocketController {
             
             ChatMessageDto response = ChatMessageDto.fromEntity(saved);
             messagingTemplate.convertAndSend("/topic/public", response);
+            globalFeedCache.append(response);
             
             if (message.getContent().toLowerCase().contains("@ai") || 
                 message.getContent().toLowerCase().contains("@styleai")) {
@@ -74,6 +99,8 @@ public class WebSocketController {
             
             ChatMessageDto response = ChatMessageDto.fromEntity(saved);
             messagingTemplate.convertAndSend("/topic/room/" + upperRoomCode, response);
+            roomMessageBuffer.append(response);
+            hotRoomIndex.recordMessage(upperRoomCode);
             
             if (message.getContent().toLowerCase().contains("@ai") || 
                 message.getContent().toLowerCase().contains("@styleai")) {
@@ -97,6 +124,7 @@ public class WebSocketController {
             
             ChatMessageDto response = ChatMessageDto.fromEntity(saved);
             messagingTemplate.convertAndSend("/topic/public", response);
+            globalFeedCache.append(response);
             
             handleOutfitAnalysis(message.getImageUrl(), message.getUserId(), null);
             
@@ -126,6 +154,8 @@ public class WebSocketController {
             
             ChatMessageDto response = ChatMessageDto.fromEntity(saved);
             messagingTemplate.convertAndSend("/topic/room/" + upperRoomCode, response);
+            roomMessageBuffer.append(response);
+            hotRoomIndex.recordOutfit(upperRoomCode);
             
             handleOutfitAnalysis(message.getImageUrl(), message.getUserId(), upperRoomCode);
             
@@ -135,6 +165,26 @@ public class WebSocketController {
         }
     }
 
+    @MessageMapping("/room/{roomCode}/react")
+    public void reactToMessage(@DestinationVariable String roomCode, ChatMessageDto message) {
+        try {
+            String upperRoomCode = roomCode.toUpperCase();
+            
+            if (!roomService.isUserInRoom(upperRoomCode, message.getUserId())) {
+                log.warn("User {} tried to react in room {} without being a member", 
+                        message.getUserId(), upperRoomCode);
+                return;
+            }
+            
+            if (!reactionService.react(upperRoomCode, message.getId(), message.getUserId())) {
+                log.debug("Ignoring repeated reaction from user {} to message {}", message.getUserId(), message.getId());
+            }
+            
+        } catch (Exception e) {
+            log.error("Error handling reaction", e);
+        }
+    }
+
     @MessageMapping("/room/{roomCode}/join")
     public void userJoinedRoom(@DestinationVariable String roomCode, ChatMessageDto message) {
         try {
@@ -164,30 +214,68 @@ public class WebSocketController {
     }
 
     private void handleAiResponse(String userMessage, String userId, String roomCode) {
-        CompletableFuture.runAsync(() -> {
+        boolean accepted = aiJobExecutor.submit("chat:" + userId, () -> {
             try {
-                String response = aiService.handleChatMessage(userMessage, userId);
-                sendAiMessage(response, userId, roomCode);
+                if (streamingEnabled) {
+                    streamAiMessage(aiService.streamChatMessage(userMessage, userId, roomCode), userId, roomCode);
+                } else {
+                    String response = aiService.handleChatMessage(userMessage, userId, roomCode);
+                    sendAiMessage(response, userId, roomCode, null);
+                }
             } catch (Exception e) {
                 log.error("AI chat error for user: {} in room: {}", userId, roomCode, e);
-                sendAiMessage("I'm having a quick wardrobe malfunction! Could you try that again? 💫", userId, roomCode);
+                sendAiMessage("I'm having a quick wardrobe malfunction! Could you try that again? 💫", userId, roomCode, null);
             }
         });
+
+        if (!accepted) {
+            sendQueueFullMessage(roomCode);
+        }
     }
 
     private void handleOutfitAnalysis(String imageUrl, String userId, String roomCode) {
-        CompletableFuture.runAsync(() -> {
+        boolean accepted = aiJobExecutor.submit("outfit:" + userId, () -> {
             try {
-                String analysis = aiService.analyzeOutfit(imageUrl, userId);
-                sendAiMessage(analysis, userId, roomCode);
+                if (streamingEnabled) {
+                    streamAiMessage(aiService.streamOutfitAnalysis(imageUrl, userId, roomCode), userId, roomCode);
+                } else {
+                    String analysis = aiService.analyzeOutfit(imageUrl, userId, roomCode);
+                    sendAiMessage(analysis, userId, roomCode, null);
+                }
             } catch (Exception e) {
                 log.error("AI analysis error for user: {} in room: {}", userId, roomCode, e);
-                sendAiMessage("Your style is looking great! My fashion scanner needs a quick refresh. ✨", userId, roomCode);
+                sendAiMessage("Your style is looking great! My fashion scanner needs a quick refresh. ✨", userId, roomCode, null);
             }
         });
+
+        if (!accepted) {
+            sendQueueFullMessage(roomCode);
+        }
     }
 
-    private void sendAiMessage(String content, String contextUserId, String roomCode) {
+    private void streamAiMessage(Flux<String> chunks, String contextUserId, String roomCode) {
+        String streamId = UUID.randomUUID().toString();
+        String destination = destinationFor(roomCode);
+
+        String fullText = chunks
+                .doOnNext(chunk -> messagingTemplate.convertAndSend(destination, ChatMessageDto.builder()
+                        .userId("StyleAI")
+                        .content(chunk)
+                        .type(ChatMessage.MessageType.AI_CHUNK)
+                        .roomCode(roomCode)
+                        .streamId(streamId)
+                        .build()))
+                .collect(Collectors.joining())
+                .block();
+
+        if (fullText == null || fullText.isBlank()) {
+            throw new IllegalStateException("AI stream completed without any content");
+        }
+
+        sendAiMessage(fullText, contextUserId, roomCode, streamId);
+    }
+
+    private void sendAiMessage(String content, String contextUserId, String roomCode, String streamId) {
         ChatMessageDto aiMessage = ChatMessageDto.builder()
                 .userId("StyleAI")
                 .content(content)
@@ -196,17 +284,39 @@ public class WebSocketController {
                 .build();
         
         aiMessage.setUserId(contextUserId);
-        chatService.saveMessage(aiMessage);
+        ChatMessage saved = chatService.saveMessage(aiMessage);
         
+        aiMessage.setId(saved.getId());
+        aiMessage.setCreatedAt(saved.getCreatedAt());
         aiMessage.setUserId("StyleAI");
+        aiMessage.setStreamId(streamId);
         
-        if (roomCode != null && !roomCode.trim().isEmpty()) {
-            messagingTemplate.convertAndSend("/topic/room/" + roomCode.toUpperCase(), aiMessage);
+        messagingTemplate.convertAndSend(destinationFor(roomCode), aiMessage);
+        if (aiMessage.isGlobalMessage()) {
+            globalFeedCache.append(aiMessage);
         } else {
-            messagingTemplate.convertAndSend("/topic/public", aiMessage);
+            roomMessageBuffer.append(aiMessage);
         }
     }
 
+    private String destinationFor(String roomCode) {
+        if (roomCode != null && !roomCode.trim().isEmpty()) {
+            return "/topic/room/" + roomCode.toUpperCase();
+        }
+        return "/topic/public";
+    }
+
+    private void sendQueueFullMessage(String roomCode) {
+        ChatMessageDto queueFullMessage = ChatMessageDto.builder()
+                .userId("System")
+                .content("StyleAI is roasting a packed house right now 🔥 Give it a minute and try again!")
+                .type(ChatMessage.MessageType.SYSTEM)
+                .roomCode(roomCode)
+                .build();
+        
+        messagingTemplate.convertAndSend(destinationFor(roomCode), queueFullMessage);
+    }
+
     private void sendErrorMessage(String destination, String content) {
         try {
             ChatMessageDto errorMessage = ChatMessageDto.builder()
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMessageDto {
@@ -18,12 +18,14 @@ public class ChatMessageDto {
     private String userId;
     private String content;
     private String imageUrl;
+    private String thumbnailUrl;
     private ChatMessage.MessageType type;
     private String roomCode;
     private LocalDateTime createdAt;
     private Integer reactionCount;
     private Boolean isEdited;
     private LocalDateTime editedAt;
+    private String streamId;
     
     public static ChatMessageDto fromEntity(ChatMessage entity) {
         return ChatMessageDto.builder()
@@ -31,6 +33,7 @@ public class ChatMessageDto {
                 .userId(entity.getUserId())
                 .content(entity.getContent())
                 .imageUrl(entity.getImageUrl())
+                .thumbnailUrl(entity.getThumbnailUrl())
                 .type(entity.getType())
                 .roomCode(entity.getRoomCode())
                 .createdAt(entity.getCreatedAt())
@@ -40,11 +43,28 @@ public class ChatMessageDto {
                 .build();
     }
     
+    public static ChatMessageDto fromView(ChatMessageView view) {
+        return ChatMessageDto.builder()
+                .id(view.getId())
+                .userId(view.getUserId())
+                .content(view.getContent())
+                .imageUrl(view.getImageUrl())
+                .thumbnailUrl(view.getThumbnailUrl())
+                .type(view.getType())
+                .roomCode(view.getRoomCode())
+                .createdAt(view.getCreatedAt())
+                .reactionCount(view.getReactionCount())
+                .isEdited(view.getIsEdited())
+                .editedAt(view.getEditedAt())
+                .build();
+    }
+    
     public ChatMessage toEntity() {
         return ChatMessage.builder()
                 .userId(this.userId)
                 .content(this.content)
                 .imageUrl(this.imageUrl)
+                .thumbnailUrl(this.thumbnailUrl)
                 .type(this.type != null ? this.type : ChatMessage.MessageType.USER)
                 .roomCode(this.roomCode)
                 .reactionCount(this.reactionCount != null ? this.reactionCount : 0)
@@ -0,0 +1,20 @@
+package com.spring.outfit_rater.dto;
+
+import com.spring.outfit_rater.model.ChatMessage;
+
+import java.time.LocalDateTime;
+
+public interface ChatMessageView {
+    
+    Long getId();
+    String getUserId();
+    String getContent();
+    String getImageUrl();
+    String getThumbnailUrl();
+    ChatMessage.MessageType getType();
+    String getRoomCode();
+    LocalDateTime getCreatedAt();
+    Integer getReactionCount();
+    Boolean getIsEdited();
+    LocalDateTime getEditedAt();
+}
@@ -0,0 +1,40 @@
+package com.spring.outfit_rater.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotRoomDto {
+    
+    private String roomCode;
+    private String roomName;
+    private String description;
+    private Integer currentParticipants;
+    private Integer maxParticipants;
+    private Boolean isFull;
+    private LocalDateTime expiresAt;
+    private Integer liveSubscribers;
+    private Double activityScore;
+    
+    public static HotRoomDto fromView(RoomView view, int liveSubscribers, double activityScore) {
+        int currentParticipants = view.getCurrentParticipants() != null ? view.getCurrentParticipants() : 0;
+        return HotRoomDto.builder()
+                .roomCode(view.getRoomCode())
+                .roomName(view.getRoomName())
+                .description(view.getDescription())
+                .currentParticipants(currentParticipants)
+                .maxParticipants(view.getMaxParticipants())
+                .isFull(view.getMaxParticipants() != null && currentParticipants >= view.getMaxParticipants())
+                .expiresAt(view.getExpiresAt())
+                .liveSubscribers(liveSubscribers)
+                .activityScore(Math.round(activityScore * 100.0) / 100.0)
+                .build();
+    }
+}
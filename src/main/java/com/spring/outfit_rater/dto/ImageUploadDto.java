@@ -0,0 +1,16 @@
+package com.spring.outfit_rater.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadDto {
+    
+    private String imageUrl;
+    private String thumbnailUrl;
+}
@@ -33,6 +33,12 @@ public class RoomDto {
     private List<ParticipantDto> participants;
     
     public static RoomDto fromEntity(RoastRoom entity) {
+        return fromEntity(entity, entity.getParticipants().stream()
+                .filter(participant -> Boolean.TRUE.equals(participant.getIsActive()))
+                .collect(Collectors.toList()));
+    }
+    
+    public static RoomDto fromEntity(RoastRoom entity, List<RoomParticipant> activeParticipants) {
         return RoomDto.builder()
                 .id(entity.getId())
                 .roomCode(entity.getRoomCode())
@@ -47,27 +53,28 @@ public class RoomDto {
                 .expiresAt(entity.getExpiresAt())
                 .isExpired(entity.isExpired())
                 .isFull(entity.isFull())
-                .participants(entity.getParticipants().stream()
+                .participants(activeParticipants.stream()
                         .map(ParticipantDto::fromEntity)
                         .collect(Collectors.toList()))
                 .build();
     }
     
-    public static RoomDto fromEntityBasic(RoastRoom entity) {
+    public static RoomDto fromView(RoomView view) {
+        int currentParticipants = view.getCurrentParticipants() != null ? view.getCurrentParticipants() : 0;
         return RoomDto.builder()
-                .id(entity.getId())
-                .roomCode(entity.getRoomCode())
-                .roomName(entity.getRoomName())
-                .description(entity.getDescription())
-                .creatorId(entity.getCreatorId())
-                .maxParticipants(entity.getMaxParticipants())
-                .currentParticipants(entity.getParticipantCount())
-                .isActive(entity.getIsActive())
-                .isPrivate(entity.getIsPrivate())
-                .createdAt(entity.getCreatedAt())
-                .expiresAt(entity.getExpiresAt())
-                .isExpired(entity.isExpired())
-                .isFull(entity.isFull())
+                .id(view.getId())
+                .roomCode(view.getRoomCode())
+                .roomName(view.getRoomName())
+                .description(view.getDescription())
+                .creatorId(view.getCreatorId())
+                .maxParticipants(view.getMaxParticipants())
+                .currentParticipants(currentParticipants)
+                .isActive(view.getIsActive())
+                .isPrivate(view.getIsPrivate())
+                .createdAt(view.getCreatedAt())
+                .expiresAt(view.getExpiresAt())
+                .isExpired(view.getExpiresAt() != null && LocalDateTime.now().isAfter(view.getExpiresAt()))
+                .isFull(view.getMaxParticipants() != null && currentParticipants >= view.getMaxParticipants())
                 .build();
     }
 }
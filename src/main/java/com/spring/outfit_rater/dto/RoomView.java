@@ -0,0 +1,18 @@
+package com.spring.outfit_rater.dto;
+
+import java.time.LocalDateTime;
+
+public interface RoomView {
+    
+    Long getId();
+    String getRoomCode();
+    String getRoomName();
+    String getDescription();
+    String getCreatorId();
+    Integer getMaxParticipants();
+    Integer getCurrentParticipants();
+    Boolean getIsActive();
+    Boolean getIsPrivate();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getExpiresAt();
+}
@@ -0,0 +1,17 @@
+package com.spring.outfit_rater.exception;
+
+import lombok.Getter;
+
+@Getter
+public class AiUnavailableException extends RuntimeException {
+    
+    private final String errorCode;
+    
+    public AiUnavailableException(String message, String errorCode) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+    
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+    public static final String LIMIT_REACHED = "LIMIT_REACHED";
+}
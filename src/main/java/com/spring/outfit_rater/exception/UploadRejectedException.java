@@ -0,0 +1,16 @@
+package com.spring.outfit_rater.exception;
+
+import lombok.Getter;
+
+@Getter
+public class UploadRejectedException extends RuntimeException {
+    
+    private final String errorCode;
+    
+    public UploadRejectedException(String message, String errorCode) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+    
+    public static final String TOO_MANY_UPLOADS = "TOO_MANY_UPLOADS";
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
@@ -14,10 +15,9 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ChatMessage {
+public class ChatMessage implements Persistable<Long> {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -29,6 +29,9 @@ public class ChatMessage {
     @Column(name = "image_url", length = 2000)
     private String imageUrl;
     
+    @Column(name = "thumbnail_url", length = 2000)
+    private String thumbnailUrl;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MessageType type;
@@ -54,9 +57,26 @@ public class ChatMessage {
     @Column(name = "edited_at")
     private LocalDateTime editedAt;
     
+    @Transient
+    @Builder.Default
+    private boolean persisted = false;
+    
     @PrePersist
     public void prePersist() {
-        this.createdAt = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+    
+    @PostPersist
+    @PostLoad
+    public void markPersisted() {
+        this.persisted = true;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return !persisted;
     }
     
     public boolean isInRoom() {
@@ -75,6 +95,8 @@ public class ChatMessage {
     public enum MessageType {
         USER,
         AI,
+        AI_CHUNK,
+        REACTION,
         OUTFIT,
         SYSTEM,
         ROOM_JOIN,
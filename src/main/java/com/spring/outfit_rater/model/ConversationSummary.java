@@ -0,0 +1,64 @@
+package com.spring.outfit_rater.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "conversation_summaries",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "scope"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+    
+    public static final String GLOBAL_SCOPE = "GLOBAL";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+    
+    @Column(name = "scope", nullable = false, length = 8)
+    private String scope;
+    
+    @Column(name = "summary", length = 4000)
+    private String summary;
+    
+    @Column(name = "last_message_id", nullable = false)
+    @Builder.Default
+    private Long lastMessageId = 0L;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public static String scopeFor(String roomCode) {
+        return roomCode == null || roomCode.trim().isEmpty() ? GLOBAL_SCOPE : roomCode.toUpperCase();
+    }
+    
+    public boolean isGlobal() {
+        return GLOBAL_SCOPE.equals(scope);
+    }
+}
@@ -55,6 +55,10 @@ public class RoastRoom {
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
     
+    @Column(name = "active_participant_count", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer activeParticipantCount = 0;
+    
     @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("joinedAt ASC")
     @Builder.Default
@@ -86,7 +90,7 @@ public class RoastRoom {
     }
     
     public boolean isFull() {
-        return participants.size() >= maxParticipants;
+        return activeParticipantCount >= maxParticipants;
     }
     
     public boolean isCreator(String userId) {
@@ -94,8 +98,6 @@ public class RoastRoom {
     }
     
     public int getParticipantCount() {
-        return (int) participants.stream()
-                .filter(RoomParticipant::getIsActive)
-                .count();
+        return activeParticipantCount;
     }
 }
@@ -0,0 +1,50 @@
+package com.spring.outfit_rater.repository;
+
+import com.spring.outfit_rater.dto.ChatMessageView;
+import com.spring.outfit_rater.model.ChatMessage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface ChatMessageReadRepository extends org.springframework.data.repository.Repository<ChatMessage, Long> {
+    
+    String VIEW_COLUMNS = "cm.id AS id, cm.userId AS userId, cm.content AS content, cm.imageUrl AS imageUrl, "
+            + "cm.thumbnailUrl AS thumbnailUrl, cm.type AS type, cm.roomCode AS roomCode, cm.createdAt AS createdAt, "
+            + "cm.reactionCount AS reactionCount, cm.isEdited AS isEdited, cm.editedAt AS editedAt";
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM ChatMessage cm WHERE cm.roomCode IS NULL ORDER BY cm.id DESC LIMIT 50")
+    List<ChatMessageView> findRecentGlobalMessages();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM ChatMessage cm WHERE cm.roomCode = :roomCode AND cm.id < :beforeId ORDER BY cm.id DESC LIMIT :limit")
+    List<ChatMessageView> findRoomMessagesBefore(@Param("roomCode") String roomCode, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM ChatMessage cm WHERE cm.roomCode = :roomCode AND cm.id > :afterId ORDER BY cm.id ASC LIMIT :limit")
+    List<ChatMessageView> findRoomMessagesAfter(@Param("roomCode") String roomCode, @Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode IS NULL AND cm.id < :beforeId ORDER BY cm.id DESC LIMIT :limit")
+    List<ChatMessageView> findGlobalMessagesByUserIdBefore(@Param("userId") String userId, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode IS NULL AND cm.id > :afterId ORDER BY cm.id ASC LIMIT :limit")
+    List<ChatMessageView> findGlobalMessagesByUserIdAfter(@Param("userId") String userId, @Param("afterId") Long afterId, @Param("limit") int limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode = :roomCode AND cm.id < :beforeId ORDER BY cm.id DESC LIMIT :limit")
+    List<ChatMessageView> findRoomMessagesByUserIdBefore(@Param("userId") String userId, @Param("roomCode") String roomCode, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode = :roomCode AND cm.id > :afterId ORDER BY cm.id ASC LIMIT :limit")
+    List<ChatMessageView> findRoomMessagesByUserIdAfter(@Param("userId") String userId, @Param("roomCode") String roomCode, @Param("afterId") Long afterId, @Param("limit") int limit);
+}
@@ -11,17 +11,17 @@ import java.util.List;
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     
-    @Query("SELECT cm FROM ChatMessage cm WHERE cm.roomCode IS NULL ORDER BY cm.createdAt DESC LIMIT 50")
-    List<ChatMessage> findRecentGlobalMessages();
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode IS NULL ORDER BY cm.id DESC LIMIT :limit")
+    List<ChatMessage> findRecentGlobalMessagesByUserId(@Param("userId") String userId, @Param("limit") int limit);
     
-    @Query("SELECT cm FROM ChatMessage cm WHERE cm.roomCode = :roomCode ORDER BY cm.createdAt DESC LIMIT :limit")
-    List<ChatMessage> findRecentRoomMessages(@Param("roomCode") String roomCode, @Param("limit") int limit);
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode = :roomCode ORDER BY cm.id DESC LIMIT :limit")
+    List<ChatMessage> findRecentRoomMessagesByUserId(@Param("userId") String userId, @Param("roomCode") String roomCode, @Param("limit") int limit);
     
-    @Query("SELECT cm FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode IS NULL ORDER BY cm.createdAt DESC")
-    List<ChatMessage> findByUserIdOrderByCreatedAtDesc(@Param("userId") String userId);
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode IS NULL AND cm.id > :afterId ORDER BY cm.id ASC LIMIT :limit")
+    List<ChatMessage> findGlobalMessagesByUserIdAfter(@Param("userId") String userId, @Param("afterId") Long afterId, @Param("limit") int limit);
     
-    @Query("SELECT cm FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode = :roomCode ORDER BY cm.createdAt DESC")
-    List<ChatMessage> findByUserIdAndRoomCodeOrderByCreatedAtDesc(@Param("userId") String userId, @Param("roomCode") String roomCode);
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.userId = :userId AND cm.roomCode = :roomCode AND cm.id > :afterId ORDER BY cm.id ASC LIMIT :limit")
+    List<ChatMessage> findRoomMessagesByUserIdAfter(@Param("userId") String userId, @Param("roomCode") String roomCode, @Param("afterId") Long afterId, @Param("limit") int limit);
     
     @Query("SELECT cm FROM ChatMessage cm ORDER BY cm.createdAt DESC LIMIT 100")
     List<ChatMessage> findTop100ByOrderByCreatedAtDesc();
@@ -29,7 +29,7 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE cm.roomCode = :roomCode")
     long countMessagesByRoomCode(@Param("roomCode") String roomCode);
     
-    @Query("SELECT cm FROM ChatMessage cm WHERE cm.roomCode = :roomCode AND cm.type = :type ORDER BY cm.createdAt DESC")
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.roomCode = :roomCode AND cm.type = :type ORDER BY cm.id DESC")
     List<ChatMessage> findByRoomCodeAndType(@Param("roomCode") String roomCode, @Param("type") ChatMessage.MessageType type);
 
 }
\ No newline at end of file
@@ -2,10 +2,13 @@ package com.spring.outfit_rater.repository;
 
 import com.spring.outfit_rater.model.Conversation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +16,10 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     
     @Query("SELECT c FROM Conversation c WHERE c.userId = :userId")
     Optional<Conversation> findByUserId(@Param("userId") String userId);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO conversations (user_id, created_at, updated_at) VALUES (:userId, :now, :now) "
+            + "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") String userId, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
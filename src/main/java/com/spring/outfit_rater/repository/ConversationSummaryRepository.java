@@ -0,0 +1,16 @@
+package com.spring.outfit_rater.repository;
+
+import com.spring.outfit_rater.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+    
+    @Query("SELECT s FROM ConversationSummary s WHERE s.userId = :userId AND s.scope = :scope")
+    Optional<ConversationSummary> findByUserIdAndScope(@Param("userId") String userId, @Param("scope") String scope);
+}
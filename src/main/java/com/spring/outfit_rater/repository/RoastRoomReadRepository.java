@@ -0,0 +1,36 @@
+package com.spring.outfit_rater.repository;
+
+import com.spring.outfit_rater.dto.RoomView;
+import com.spring.outfit_rater.model.RoastRoom;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface RoastRoomReadRepository extends org.springframework.data.repository.Repository<RoastRoom, Long> {
+    
+    String VIEW_COLUMNS = "r.id AS id, r.roomCode AS roomCode, r.roomName AS roomName, r.description AS description, "
+            + "r.creatorId AS creatorId, r.maxParticipants AS maxParticipants, "
+            + "r.activeParticipantCount AS currentParticipants, "
+            + "r.isActive AS isActive, r.isPrivate AS isPrivate, r.createdAt AS createdAt, r.expiresAt AS expiresAt";
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM RoastRoom r WHERE r.creatorId = :creatorId ORDER BY r.createdAt DESC")
+    List<RoomView> findByCreatorIdOrderByCreatedAtDesc(@Param("creatorId") String creatorId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM RoastRoom r JOIN r.participants p WHERE p.userId = :userId AND p.isActive = true AND r.isActive = true ORDER BY p.lastSeenAt DESC")
+    List<RoomView> findRoomsByParticipant(@Param("userId") String userId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT " + VIEW_COLUMNS + " FROM RoastRoom r WHERE r.roomCode IN :roomCodes")
+    List<RoomView> findByRoomCodeIn(@Param("roomCodes") Collection<String> roomCodes);
+}
@@ -2,6 +2,7 @@ package com.spring.outfit_rater.repository;
 
 import com.spring.outfit_rater.model.RoastRoom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,9 +17,6 @@ public interface RoastRoomRepository extends JpaRepository<RoastRoom, Long> {
     @Query("SELECT r FROM RoastRoom r WHERE r.roomCode = :roomCode")
     Optional<RoastRoom> findByRoomCode(@Param("roomCode") String roomCode);
     
-    @Query("SELECT r FROM RoastRoom r WHERE r.creatorId = :creatorId ORDER BY r.createdAt DESC")
-    List<RoastRoom> findByCreatorIdOrderByCreatedAtDesc(@Param("creatorId") String creatorId);
-    
     @Query("SELECT r FROM RoastRoom r WHERE r.isActive = true AND r.expiresAt > :now ORDER BY r.createdAt DESC")
     List<RoastRoom> findActiveRooms(@Param("now") LocalDateTime now);
     
@@ -31,8 +29,12 @@ public interface RoastRoomRepository extends JpaRepository<RoastRoom, Long> {
     @Query("SELECT COUNT(r) FROM RoastRoom r WHERE r.creatorId = :creatorId AND r.isActive = true AND r.expiresAt > :now")
     int countActiveRoomsByCreator(@Param("creatorId") String creatorId, @Param("now") LocalDateTime now);
     
-    @Query("SELECT r FROM RoastRoom r JOIN r.participants p WHERE p.userId = :userId AND p.isActive = true AND r.isActive = true ORDER BY p.lastSeenAt DESC")
-    List<RoastRoom> findRoomsByParticipant(@Param("userId") String userId);
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoastRoom r SET r.activeParticipantCount = r.activeParticipantCount + 1 WHERE r.id = :roomId "
+            + "AND r.isActive = true AND (r.expiresAt IS NULL OR r.expiresAt > :now) AND r.activeParticipantCount < r.maxParticipants")
+    int reserveSeat(@Param("roomId") Long roomId, @Param("now") LocalDateTime now);
     
-    boolean existsByRoomCode(String roomCode);
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoastRoom r SET r.activeParticipantCount = r.activeParticipantCount - 1 WHERE r.roomCode = :roomCode AND r.activeParticipantCount > 0")
+    int releaseSeat(@Param("roomCode") String roomCode);
 }
@@ -20,6 +20,9 @@ public interface RoomParticipantRepository extends JpaRepository<RoomParticipant
     @Query("SELECT p FROM RoomParticipant p WHERE p.room.roomCode = :roomCode AND p.isActive = true ORDER BY p.joinedAt ASC")
     List<RoomParticipant> findActiveParticipantsByRoomCode(@Param("roomCode") String roomCode);
     
+    @Query("SELECT COUNT(p) > 0 FROM RoomParticipant p WHERE p.room.id = :roomId AND p.userId = :userId AND p.isActive = true")
+    boolean isActiveParticipant(@Param("roomId") Long roomId, @Param("userId") String userId);
+    
     @Query("SELECT p FROM RoomParticipant p WHERE p.userId = :userId AND p.isActive = true")
     List<RoomParticipant> findActiveParticipantsByUserId(@Param("userId") String userId);
     
@@ -30,9 +33,14 @@ public interface RoomParticipantRepository extends JpaRepository<RoomParticipant
     @Query("UPDATE RoomParticipant p SET p.lastSeenAt = :lastSeen WHERE p.userId = :userId AND p.room.roomCode = :roomCode")
     void updateLastSeenAt(@Param("userId") String userId, @Param("roomCode") String roomCode, @Param("lastSeen") LocalDateTime lastSeen);
     
-    @Modifying
-    @Query("UPDATE RoomParticipant p SET p.isActive = false WHERE p.userId = :userId AND p.room.roomCode = :roomCode")
-    void deactivateParticipant(@Param("userId") String userId, @Param("roomCode") String roomCode);
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoomParticipant p SET p.isActive = false WHERE p.userId = :userId AND p.room.roomCode = :roomCode AND p.isActive = true")
+    int deactivateParticipant(@Param("userId") String userId, @Param("roomCode") String roomCode);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RoomParticipant p SET p.isActive = true, p.lastSeenAt = :now "
+            + "WHERE p.room.id = :roomId AND p.userId = :userId AND (p.isActive IS NULL OR p.isActive = false)")
+    int reactivateParticipant(@Param("roomId") Long roomId, @Param("userId") String userId, @Param("now") LocalDateTime now);
     
     @Query("SELECT p FROM RoomParticipant p WHERE p.lastSeenAt < :threshold AND p.isActive = true")
     List<RoomParticipant> findInactiveParticipants(@Param("threshold") LocalDateTime threshold);
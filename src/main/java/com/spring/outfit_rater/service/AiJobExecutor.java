@@ -0,0 +1,87 @@
+package com.spring.outfit_rater.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class AiJobExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer runTimer;
+    private final Counter rejectedCounter;
+
+    public AiJobExecutor(MeterRegistry meterRegistry,
+                         @Value("${ai.jobs.max-in-flight:8}") int maxInFlight,
+                         @Value("${ai.jobs.queue-capacity:50}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                maxInFlight, maxInFlight,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "ai-job-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("ai.jobs.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("AI jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("ai.jobs.in.flight", executor, ThreadPoolExecutor::getActiveCount)
+                .description("AI jobs currently running")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("ai.jobs.wait")
+                .description("Time AI jobs spend queued before starting")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("ai.jobs.run")
+                .description("Time AI jobs spend running")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("ai.jobs.rejected")
+                .description("AI jobs rejected because the queue was full")
+                .register(meterRegistry);
+
+        log.info("AI job executor started - max in flight: {}, queue capacity: {}", maxInFlight, queueCapacity);
+    }
+
+    public boolean submit(String jobName, Runnable job) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                runTimer.record(job);
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("AI job queue full, rejected job: {} (queued: {}, in flight: {})",
+                    jobName, executor.getQueue().size(), executor.getActiveCount());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("AI job executor did not drain in time, {} jobs dropped", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
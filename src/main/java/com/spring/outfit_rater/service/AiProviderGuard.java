@@ -0,0 +1,319 @@
+package com.spring.outfit_rater.service;
+
+import com.spring.outfit_rater.exception.AiUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class AiProviderGuard {
+
+    public enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    enum Outcome {
+        SUCCESS,
+        RATE_LIMITED,
+        TIMEOUT,
+        FAILED,
+        IGNORED
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxRetries;
+    private final Duration retryBaseDelay;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final double backgroundShare;
+
+    private double limit;
+    private int inFlight;
+    private int consecutiveFailures;
+    private CircuitState circuitState = CircuitState.CLOSED;
+    private Instant openedAt;
+    private boolean probeInFlight;
+    private long rateLimitedCount;
+    private long timeoutCount;
+    private long rejectedCount;
+
+    public AiProviderGuard(MeterRegistry meterRegistry,
+                           @Value("${ai.provider.min-concurrency:1}") int minLimit,
+                           @Value("${ai.provider.max-concurrency:16}") int maxLimit,
+                           @Value("${ai.provider.initial-concurrency:8}") int initialLimit,
+                           @Value("${ai.provider.max-retries:2}") int maxRetries,
+                           @Value("${ai.provider.retry-base-delay-ms:500}") long retryBaseDelayMs,
+                           @Value("${ai.provider.circuit.failure-threshold:5}") int failureThreshold,
+                           @Value("${ai.provider.circuit.open-seconds:30}") long openSeconds,
+                           @Value("${ai.provider.background-share:0.5}") double backgroundShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.maxRetries = maxRetries;
+        this.retryBaseDelay = Duration.ofMillis(retryBaseDelayMs);
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Duration.ofSeconds(openSeconds);
+        this.backgroundShare = backgroundShare;
+
+        Gauge.builder("ai.provider.concurrency.limit", this, AiProviderGuard::getLimit)
+                .description("Current adaptive concurrency limit for the AI provider")
+                .register(meterRegistry);
+        Gauge.builder("ai.provider.in.flight", this, AiProviderGuard::getInFlight)
+                .description("AI provider requests currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("ai.provider.circuit.open", this, guard -> guard.getCircuitState() == CircuitState.CLOSED ? 0 : 1)
+                .description("1 while the AI provider circuit is open or half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Callable<T> request) throws Exception {
+        int attempt = 0;
+        while (true) {
+            try {
+                return attempt(request);
+            } catch (Exception e) {
+                if (attempt >= maxRetries || !isRetryable(e)) {
+                    throw e;
+                }
+                sleepBeforeRetry(attempt++);
+            }
+        }
+    }
+
+    public <T> T callInBackground(Callable<T> request) throws Exception {
+        return attempt(request, acquireBackground());
+    }
+
+    public <T> Flux<T> guard(Supplier<Flux<T>> request) {
+        AtomicBoolean emitted = new AtomicBoolean(false);
+
+        return Flux.defer(() -> {
+                    Permit permit = acquire();
+                    return request.get()
+                            .doOnNext(item -> emitted.set(true))
+                            .doOnComplete(() -> permit.release(Outcome.SUCCESS))
+                            .doOnError(e -> permit.release(classify(e)))
+                            .doOnCancel(() -> permit.release(Outcome.IGNORED));
+                })
+                .retryWhen(Retry.backoff(maxRetries, retryBaseDelay)
+                        .jitter(0.5)
+                        .filter(e -> !emitted.get() && isRetryable(e))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    public synchronized Map<String, Object> describe() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("circuitState", currentCircuitState());
+        state.put("concurrencyLimit", (int) limit);
+        state.put("inFlight", inFlight);
+        state.put("consecutiveFailures", consecutiveFailures);
+        state.put("rateLimited", rateLimitedCount);
+        state.put("timeouts", timeoutCount);
+        state.put("rejected", rejectedCount);
+        if (openedAt != null) {
+            state.put("lastOpenedAt", openedAt.toString());
+        }
+        return state;
+    }
+
+    public synchronized CircuitState getCircuitState() {
+        return currentCircuitState();
+    }
+
+    private synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    private synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private <T> T attempt(Callable<T> request) throws Exception {
+        return attempt(request, acquire());
+    }
+
+    private <T> T attempt(Callable<T> request, Permit permit) throws Exception {
+        try {
+            T result = request.call();
+            permit.release(Outcome.SUCCESS);
+            return result;
+        } catch (Exception e) {
+            permit.release(classify(e));
+            throw e;
+        }
+    }
+
+    private synchronized Permit acquire() {
+        CircuitState state = currentCircuitState();
+
+        if (state == CircuitState.OPEN) {
+            rejectedCount++;
+            throw new AiUnavailableException("AI provider circuit is open", AiUnavailableException.CIRCUIT_OPEN);
+        }
+
+        if (state == CircuitState.HALF_OPEN) {
+            if (probeInFlight) {
+                rejectedCount++;
+                throw new AiUnavailableException("AI provider circuit is half-open", AiUnavailableException.CIRCUIT_OPEN);
+            }
+            probeInFlight = true;
+            inFlight++;
+            return new Permit(true);
+        }
+
+        if (inFlight >= (int) limit) {
+            rejectedCount++;
+            throw new AiUnavailableException("AI provider concurrency limit reached", AiUnavailableException.LIMIT_REACHED);
+        }
+
+        inFlight++;
+        return new Permit(false);
+    }
+
+    // Background work never probes a recovering provider and only uses spare capacity, so it cannot crowd out users
+    private synchronized Permit acquireBackground() {
+        if (currentCircuitState() != CircuitState.CLOSED || inFlight >= (int) (limit * backgroundShare)) {
+            throw new AiUnavailableException("AI provider has no spare capacity for background work", AiUnavailableException.LIMIT_REACHED);
+        }
+
+        inFlight++;
+        return new Permit(false);
+    }
+
+    private synchronized void onRelease(boolean probe, Outcome outcome) {
+        inFlight--;
+        if (probe) {
+            probeInFlight = false;
+        }
+
+        switch (outcome) {
+            case SUCCESS -> {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+                consecutiveFailures = 0;
+                if (probe) {
+                    circuitState = CircuitState.CLOSED;
+                    log.info("AI provider circuit closed after successful probe");
+                }
+            }
+            case RATE_LIMITED, TIMEOUT, FAILED -> {
+                if (outcome == Outcome.RATE_LIMITED) {
+                    rateLimitedCount++;
+                } else if (outcome == Outcome.TIMEOUT) {
+                    timeoutCount++;
+                }
+                if (outcome != Outcome.FAILED) {
+                    limit = Math.max(minLimit, limit / 2);
+                }
+                consecutiveFailures++;
+                if (probe || consecutiveFailures >= failureThreshold) {
+                    openCircuit(outcome);
+                }
+            }
+            case IGNORED -> {
+            }
+        }
+    }
+
+    private CircuitState currentCircuitState() {
+        if (circuitState == CircuitState.OPEN && Instant.now().isAfter(openedAt.plus(openDuration))) {
+            circuitState = CircuitState.HALF_OPEN;
+        }
+        return circuitState;
+    }
+
+    private void openCircuit(Outcome outcome) {
+        if (circuitState != CircuitState.OPEN) {
+            log.warn("Opening AI provider circuit after {} consecutive failures (last: {}), limit now {}",
+                    consecutiveFailures, outcome, (int) limit);
+        }
+        circuitState = CircuitState.OPEN;
+        openedAt = Instant.now();
+    }
+
+    private void sleepBeforeRetry(int attempt) throws InterruptedException {
+        long baseMillis = retryBaseDelay.toMillis() << Math.min(attempt, 10);
+        long jitteredMillis = baseMillis / 2 + ThreadLocalRandom.current().nextLong(baseMillis / 2 + 1);
+        Thread.sleep(jitteredMillis);
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (Exceptions.unwrap(e) instanceof AiUnavailableException unavailable) {
+            return AiUnavailableException.LIMIT_REACHED.equals(unavailable.getErrorCode());
+        }
+        return classify(e) != Outcome.IGNORED;
+    }
+
+    private Outcome classify(Throwable e) {
+        Throwable cause = Exceptions.unwrap(e);
+
+        if (cause instanceof TimeoutException) {
+            return Outcome.TIMEOUT;
+        }
+        if (cause instanceof WebClientResponseException responseException) {
+            return classifyStatus(responseException.getStatusCode().value());
+        }
+        if (cause instanceof RestClientResponseException responseException) {
+            return classifyStatus(responseException.getStatusCode().value());
+        }
+        if (cause instanceof NonTransientAiException && cause.getMessage() != null && cause.getMessage().startsWith("429")) {
+            return Outcome.RATE_LIMITED;
+        }
+        if (cause instanceof TransientAiException
+                || cause instanceof WebClientRequestException
+                || cause instanceof ResourceAccessException) {
+            return Outcome.FAILED;
+        }
+        return Outcome.IGNORED;
+    }
+
+    private Outcome classifyStatus(int status) {
+        if (status == 429) {
+            return Outcome.RATE_LIMITED;
+        }
+        if (status == 408 || status == 504) {
+            return Outcome.TIMEOUT;
+        }
+        return status >= 500 ? Outcome.FAILED : Outcome.IGNORED;
+    }
+
+    private class Permit {
+
+        private final boolean probe;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        Permit(boolean probe) {
+            this.probe = probe;
+        }
+
+        void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(probe, outcome);
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.spring.outfit_rater.service;
 
-import com.spring.outfit_rater.model.ChatMessage;
-import com.spring.outfit_rater.repository.ChatMessageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.outfit_rater.exception.AiUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -17,85 +19,230 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 public class AiService {
 
+    private static final String VISION_PROMPT_VERSION = "v2";
+    private static final String STREAM_DONE = "[DONE]";
+    private static final Duration STREAM_IDLE_TIMEOUT = Duration.ofSeconds(30);
+    private static final String NO_IMAGE_MESSAGE = "Uh, hello? I can't roast what I can't see. Upload a pic so I can properly judge your fashion choices 📸";
+    private static final String VISION_FALLBACK = "My roasting servers are down, but honestly your outfit probably deserves it anyway 🔥";
+    private static final String CHAT_FALLBACK = "Even my AI is having a fashion emergency rn. Try again bestie 💀";
+    private static final String PROVIDER_BUSY_MESSAGE = "I'm too busy roasting other people's fits. Give me a sec ⏰";
+
     private final WebClient webClient;
     private final ChatModel chatModel;
-    private final ChatMessageRepository messageRepository;
+    private final ConversationContextBuffer contextBuffer;
+    private final ConversationSummaryService summaryService;
+    private final StorageService storageService;
+    private final AiProviderGuard providerGuard;
+    private final Cache<String, String> roastCache;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Value("${spring.ai.openai.api-key}")
     private String apiKey;
 
-    public AiService(ChatModel chatModel, ChatMessageRepository messageRepository) {
+    @Value("${ai.summary.recent-lines:4}")
+    private int recentLinesWithSummary;
+
+    public AiService(ChatModel chatModel, ConversationContextBuffer contextBuffer,
+                     ConversationSummaryService summaryService, StorageService storageService,
+                     AiProviderGuard providerGuard,
+                     @Value("${spring.ai.openai.base-url:https://api.openai.com}") String openAiBaseUrl,
+                     @Value("${ai.roast-cache.max-size:1000}") long roastCacheMaxSize,
+                     @Value("${ai.roast-cache.ttl-hours:24}") long roastCacheTtlHours) {
         this.chatModel = chatModel;
-        this.messageRepository = messageRepository;
+        this.contextBuffer = contextBuffer;
+        this.summaryService = summaryService;
+        this.storageService = storageService;
+        this.providerGuard = providerGuard;
+        this.roastCache = Caffeine.newBuilder()
+                .maximumSize(roastCacheMaxSize)
+                .expireAfterWrite(Duration.ofHours(roastCacheTtlHours))
+                .build();
         this.webClient = WebClient.builder()
-                .baseUrl("https://api.openai.com/v1")
+                .baseUrl(openAiBaseUrl + "/v1")
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
 
-    public String analyzeOutfit(String imageUrl, String userId) {
+    public String analyzeOutfit(String imageUrl, String userId, String roomCode) {
         if (imageUrl == null || imageUrl.isEmpty()) {
-            return "Uh, hello? I can't roast what I can't see. Upload a pic so I can properly judge your fashion choices 📸";
+            return NO_IMAGE_MESSAGE;
+        }
+
+        Optional<String> cacheKey = roastCacheKey(imageUrl);
+        Optional<String> cached = cacheKey.map(roastCache::getIfPresent);
+        if (cached.isPresent()) {
+            log.info("Serving cached roast for image {}", cacheKey.get());
+            return cached.get();
         }
 
         try {
-            return analyzeOutfitWithVision(imageUrl, userId);
+            return analyzeOutfitWithVision(imageUrl, cacheKey);
+        } catch (AiUnavailableException e) {
+            log.warn("Skipping outfit analysis for user: {} - {}", userId, e.getMessage());
+            return PROVIDER_BUSY_MESSAGE;
         } catch (Exception e) {
             log.error("Failed to analyze outfit for user: {}", userId, e);
-            return "My roasting servers are down, but honestly your outfit probably deserves it anyway 🔥";
+            return VISION_FALLBACK;
         }
     }
 
-    public String handleChatMessage(String message, String userId) {
+    public String handleChatMessage(String message, String userId, String roomCode) {
         try {
-            String conversationContext = buildConversationContext(userId);
+            Prompt chatPrompt = buildChatPrompt(message, userId, roomCode);
+            return providerGuard.call(() -> chatModel.call(chatPrompt)).getResult().getOutput().getText();
 
-            String prompt = String.format("""
-                    You are StyleAI, a brutally honest and hilarious fashion roaster. You're like that friend who tells it like it is but makes everyone laugh.
+        } catch (AiUnavailableException e) {
+            log.warn("Skipping chat response for user: {} - {}", userId, e.getMessage());
+            return PROVIDER_BUSY_MESSAGE;
+        } catch (Exception e) {
+            log.error("Failed to generate chat response for user: {}", userId, e);
+            return CHAT_FALLBACK;
+        }
+    }
 
-                    Previous conversation context:
-                    %s
+    public Flux<String> streamOutfitAnalysis(String imageUrl, String userId, String roomCode) {
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            return Flux.just(NO_IMAGE_MESSAGE);
+        }
 
-                    Current message: "%s"
+        Optional<String> cacheKey = roastCacheKey(imageUrl);
+        Optional<String> cached = cacheKey.map(roastCache::getIfPresent);
+        if (cached.isPresent()) {
+            log.info("Serving cached roast for image {}", cacheKey.get());
+            return Flux.just(cached.get());
+        }
 
-                    Your personality:
-                    - Roast people's fashion choices but keep it funny and playful
-                    - Use casual, sarcastic language with lots of attitude
-                    - Make jokes about trends, colors, fits, and styling fails
-                    - Call out questionable fashion decisions with humor
-                    - Be sassy but not actually mean-spirited
-                    - Use Gen Z/millennial slang and internet humor
-                    - Still give actual fashion advice, just wrapped in roasts
+        StringBuilder fullText = new StringBuilder();
+        Flux<String> chunks = providerGuard.guard(() -> streamVisionCompletion(buildVisionRequest(imageUrl, true)))
+                .transform(this::formatAnalysisStream)
+                .doOnNext(fullText::append)
+                .doOnComplete(() -> {
+                    if (!fullText.toString().isBlank()) {
+                        cacheKey.ifPresent(key -> roastCache.put(key, fullText.toString()));
+                    }
+                });
 
-                    Keep responses short and punchy (80-120 words max). Use emojis like 💀, 😭, 🔥, 👀, etc. 
-                    Be the fashion roaster everyone secretly wants feedback from.
-                    """, conversationContext, message);
+        return withFallback(chunks, userId, this::describeVisionFailure);
+    }
 
-            Prompt chatPrompt = new Prompt(prompt);
-            return chatModel.call(chatPrompt).getResult().getOutput().getText();
+    public Flux<String> streamChatMessage(String message, String userId, String roomCode) {
+        return withFallback(
+                providerGuard.guard(() -> chatModel.stream(buildChatPrompt(message, userId, roomCode))
+                                .timeout(STREAM_IDLE_TIMEOUT))
+                        .map(this::extractChunkText)
+                        .filter(chunk -> !chunk.isEmpty()),
+                userId,
+                e -> e instanceof AiUnavailableException ? PROVIDER_BUSY_MESSAGE : CHAT_FALLBACK
+        );
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to generate chat response for user: {}", userId, e);
-            return "Even my AI is having a fashion emergency rn. Try again bestie 💀";
-        }
+    private Prompt buildChatPrompt(String message, String userId, String roomCode) {
+        String conversationContext = buildConversationContext(userId, roomCode);
+
+        String prompt = String.format("""
+                You are StyleAI, a brutally honest and hilarious fashion roaster. You're like that friend who tells it like it is but makes everyone laugh.
+
+                Previous conversation context:
+                %s
+
+                Current message: "%s"
+
+                Your personality:
+                - Roast people's fashion choices but keep it funny and playful
+                - Use casual, sarcastic language with lots of attitude
+                - Make jokes about trends, colors, fits, and styling fails
+                - Call out questionable fashion decisions with humor
+                - Be sassy but not actually mean-spirited
+                - Use Gen Z/millennial slang and internet humor
+                - Still give actual fashion advice, just wrapped in roasts
+
+                Keep responses short and punchy (80-120 words max). Use emojis like 💀, 😭, 🔥, 👀, etc. 
+                Be the fashion roaster everyone secretly wants feedback from.
+                """, conversationContext, message);
+
+        return new Prompt(prompt);
     }
 
-    private String analyzeOutfitWithVision(String imageUrl, String userId) throws Exception {
-        String conversationContext = buildConversationContext(userId);
+    private String analyzeOutfitWithVision(String imageUrl, Optional<String> cacheKey) throws Exception {
+        ObjectNode requestJson = buildVisionRequest(imageUrl, false);
+
+        log.info("Sending roast request to OpenAI with image URL: {}", imageUrl);
+        
+        try {
+            String response = providerGuard.call(() -> webClient.post()
+                    .uri("/chat/completions")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(requestJson)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(Duration.ofSeconds(30))
+                    .block());
         
+            log.info("OpenAI roast response received successfully");
+        
+            JsonNode jsonResponse = objectMapper.readTree(response);
+            JsonNode choicesArray = jsonResponse.path("choices");
+            
+            if (choicesArray.isEmpty()) {
+                return "Bestie, I can't even process this mess. Try again with a clearer pic 💀";
+            }
+            
+            JsonNode contentNode = choicesArray.get(0).path("message").path("content");
+            
+            if (contentNode.isMissingNode() || contentNode.isNull() || contentNode.asText().trim().isEmpty()) {
+                return "Your outfit broke my AI. That's... actually impressive in the worst way 😭";
+            }
+        
+            String analysisText = formatAnalysisResponse(contentNode.asText());
+            cacheKey.ifPresent(key -> roastCache.put(key, analysisText));
+            
+            return analysisText;
+            
+        } catch (WebClientResponseException e) {
+            return describeApiError(e);
+        }
+    }
+
+    private Flux<String> streamVisionCompletion(ObjectNode requestJson) {
+        log.info("Streaming roast request to OpenAI");
+
+        return webClient.post()
+                .uri("/chat/completions")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestJson)
+                .retrieve()
+                .bodyToFlux(String.class)
+                .timeout(STREAM_IDLE_TIMEOUT)
+                .takeWhile(data -> !STREAM_DONE.equals(data.trim()))
+                .map(this::extractDeltaText)
+                .filter(chunk -> !chunk.isEmpty());
+    }
+
+    // The roast depends only on the image, so it can be cached and served to anyone who uploads the same picture
+    private ObjectNode buildVisionRequest(String imageUrl, boolean stream) {
         ObjectNode requestJson = objectMapper.createObjectNode();
         requestJson.put("model", "gpt-4o");
         requestJson.put("max_tokens", 400);
         requestJson.put("temperature", 0.8);
+        if (stream) {
+            requestJson.put("stream", true);
+        }
         
         ArrayNode messages = objectMapper.createArrayNode();
         
@@ -107,14 +254,12 @@ public class AiService {
         ObjectNode textContent = objectMapper.createObjectNode();
         textContent.put("type", "text");
         
-        String promptText = "You are StyleAI, the sassiest fashion roaster on the internet. Analyze this outfit like you're reviewing it for your brutally honest fashion TikTok. " +
-                "Previous roasts/convos: " + conversationContext + 
+        String promptText = "You are StyleAI, the sassiest fashion roaster on the internet. Analyze this outfit like you're reviewing it for your brutally honest fashion TikTok." +
                 "\n\nYour roast should include:\n" +
                 "• A savage but funny rating out of 10 (be harsh but creative)\n" +
                 "• Roast what's NOT working (colors, fit, styling choices, etc.)\n" +
                 "• Maybe find ONE thing that doesn't make you cry\n" +
-                "• Give 2-3 actually helpful tips but make them sound like friendly insults\n" +
-                "• Reference their past fashion crimes if relevant\n\n" +
+                "• Give 2-3 actually helpful tips but make them sound like friendly insults\n\n" +
                 "Use casual, sarcastic language. Think 'best friend who has no filter' energy. " +
                 "Be funny, not actually cruel. Keep it under 180 words and use emojis like 💀😭🔥👀🚫✨";
         
@@ -133,101 +278,118 @@ public class AiService {
         userMessage.set("content", content);
         messages.add(userMessage);
         requestJson.set("messages", messages);
-        
-        log.info("Sending roast request to OpenAI with image URL: {}", imageUrl);
-        
+
+        return requestJson;
+    }
+
+    private String extractDeltaText(String data) {
         try {
-            String response = webClient.post()
-                    .uri("/chat/completions")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestJson)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(30))
-                    .block();
-        
-            log.info("OpenAI roast response received successfully");
-        
-            JsonNode jsonResponse = objectMapper.readTree(response);
-            JsonNode choicesArray = jsonResponse.path("choices");
-            
-            if (choicesArray.isEmpty()) {
-                return "Bestie, I can't even process this mess. Try again with a clearer pic 💀";
-            }
-            
-            JsonNode contentNode = choicesArray.get(0).path("message").path("content");
-            
-            if (contentNode.isMissingNode() || contentNode.isNull() || contentNode.asText().trim().isEmpty()) {
-                return "Your outfit broke my AI. That's... actually impressive in the worst way 😭";
-            }
+            JsonNode contentNode = objectMapper.readTree(data)
+                    .path("choices").path(0).path("delta").path("content");
+            return contentNode.isTextual() ? contentNode.asText() : "";
+        } catch (Exception e) {
+            log.warn("Skipping unparseable stream chunk: {}", data);
+            return "";
+        }
+    }
+
+    private String extractChunkText(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return "";
+        }
+        String text = response.getResult().getOutput().getText();
+        return text != null ? text : "";
+    }
+
+    private Flux<String> withFallback(Flux<String> chunks, String userId,
+                                      Function<Throwable, String> fallback) {
+        AtomicBoolean emitted = new AtomicBoolean(false);
+        return chunks
+                .doOnNext(chunk -> emitted.set(true))
+                .onErrorResume(e -> {
+                    log.error("AI stream failed for user: {}", userId, e);
+                    return emitted.get() ? Flux.empty() : Flux.just(fallback.apply(e));
+                });
+    }
+
+    private Optional<String> roastCacheKey(String imageUrl) {
+        return storageService.extractContentDigest(imageUrl)
+                .map(digest -> VISION_PROMPT_VERSION + ":" + digest);
+    }
+
+    private String describeVisionFailure(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return describeApiError(responseException);
+        }
+        if (e instanceof AiUnavailableException) {
+            return PROVIDER_BUSY_MESSAGE;
+        }
+        return VISION_FALLBACK;
+    }
+
+    private String describeApiError(WebClientResponseException e) {
+        log.error("OpenAI API error - Status: {}, Body: {}", e.getStatusCode(), e.getResponseBodyAsString());
         
-            String analysisText = contentNode.asText();
-            
-            return formatAnalysisResponse(analysisText);
-            
-        } catch (WebClientResponseException e) {
-            log.error("OpenAI API error - Status: {}, Body: {}", e.getStatusCode(), e.getResponseBodyAsString());
-            
-            if (e.getStatusCode().value() == 400) {
-                String errorBody = e.getResponseBodyAsString();
-                if (errorBody.contains("invalid_image_url") || errorBody.contains("image")) {
-                    return "That image link is as broken as your fashion sense. Upload properly bestie 📸";
-                } else if (errorBody.contains("invalid_api_key")) {
-                    return "Technical difficulties. Even my roasting skills have limits apparently 🔧";
-                } else {
-                    log.error("Bad request details: {}", errorBody);
-                    return "Something's glitched. Maybe it's your outfit, maybe it's my code 🤷‍♀️";
-                }
-            } else if (e.getStatusCode().value() == 401) {
-                return "Authentication failed harder than your outfit coordination 🔐";
-            } else if (e.getStatusCode().value() == 429) {
-                return "I'm too busy roasting other people's fits. Give me a sec ⏰";
+        if (e.getStatusCode().value() == 400) {
+            String errorBody = e.getResponseBodyAsString();
+            if (errorBody.contains("invalid_image_url") || errorBody.contains("image")) {
+                return "That image link is as broken as your fashion sense. Upload properly bestie 📸";
+            } else if (errorBody.contains("invalid_api_key")) {
+                return "Technical difficulties. Even my roasting skills have limits apparently 🔧";
             } else {
-                return "Technical meltdown in progress. At least it's not as bad as your outfit choice 💀";
+                log.error("Bad request details: {}", errorBody);
+                return "Something's glitched. Maybe it's your outfit, maybe it's my code 🤷‍♀️";
             }
+        } else if (e.getStatusCode().value() == 401) {
+            return "Authentication failed harder than your outfit coordination 🔐";
+        } else if (e.getStatusCode().value() == 429) {
+            return PROVIDER_BUSY_MESSAGE;
+        } else {
+            return "Technical meltdown in progress. At least it's not as bad as your outfit choice 💀";
         }
     }
 
     private String formatAnalysisResponse(String rawResponse) {
-        String formatted = rawResponse
+        return applyAnalysisFormatting(rawResponse).strip();
+    }
+
+    private String applyAnalysisFormatting(String text) {
+        return text
                 .replaceAll("\\*\\*(.*?)\\*\\*", "$1")
                 .replaceAll("\\*(.*?)\\*", "$1")
                 .replaceAll("•", "💀")
-                .replaceAll("- ", "🔥 ")    
-                .trim();
+                .replaceAll("- ", "🔥 ");
+    }
 
-        return formatted;
+    // Streams chunks already formatted the way the final message will be, so the text does not change on completion
+    private Flux<String> formatAnalysisStream(Flux<String> rawChunks) {
+        return Flux.defer(() -> {
+            AnalysisStreamFormatter formatter = new AnalysisStreamFormatter();
+            return rawChunks.map(formatter::next)
+                    .concatWith(Mono.fromCallable(formatter::finish))
+                    .filter(chunk -> !chunk.isEmpty());
+        });
     }
 
-    private String buildConversationContext(String userId) {
-        List<ChatMessage> recentMessages = messageRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .limit(10)
-                .collect(Collectors.toList());
+    private String buildConversationContext(String userId, String roomCode) {
+        Optional<String> summary = summaryService.getSummary(userId, roomCode);
+        List<String> recentLines = contextBuffer.getRecentLines(userId, roomCode);
 
-        if (recentMessages.isEmpty()) {
+        if (summary.isEmpty() && recentLines.isEmpty()) {
             return "No previous roasts to reference.";
         }
 
-        StringBuilder context = new StringBuilder("Previous roasting session:\n");
-        for (int i = recentMessages.size() - 1; i >= 0; i--) {
-            ChatMessage msg = recentMessages.get(i);
-            String role = msg.getType() == ChatMessage.MessageType.AI ? "StyleAI" : "User";
-
-            if (msg.getImageUrl() != null) {
-                context.append(String.format("- %s posted another questionable outfit\n", role));
-            } else {
-                String cleanContent = msg.getContent()
-                        .replaceAll("[\r\n]+", " ")
-                        .replaceAll("\"", "'")
-                        .trim();
+        StringBuilder context = new StringBuilder();
+        summary.ifPresent(text -> context.append("Summary of the session so far:\n").append(text).append("\n\n"));
 
-                if (cleanContent.length() > 100) {
-                    cleanContent = cleanContent.substring(0, 100) + "...";
-                }
+        if (summary.isPresent() && recentLines.size() > recentLinesWithSummary) {
+            recentLines = recentLines.subList(recentLines.size() - recentLinesWithSummary, recentLines.size());
+        }
 
-                context.append(String.format("- %s: %s\n", role, cleanContent));
+        if (!recentLines.isEmpty()) {
+            context.append("Most recent messages:\n");
+            for (String line : recentLines) {
+                context.append(line).append('\n');
             }
         }
 
@@ -237,4 +399,38 @@ public class AiService {
     public String getWelcomeMessage() {
         return "Welcome to the roast zone! 🔥 I'm your brutally honest AI fashion critic. Send me your fits and I'll tell you exactly what I think... no sugar-coating, just pure roasting energy. Ready to get humbled? 💀";
     }
-}
\ No newline at end of file
+
+    // Formatting never spans a line break, so complete lines are final. A partial line is held back only while
+    // it may still change: an unclosed emphasis marker, or a trailing '-' that may become a bullet.
+    private class AnalysisStreamFormatter {
+
+        private final StringBuilder pending = new StringBuilder();
+        private boolean started;
+
+        String next(String chunk) {
+            pending.append(chunk);
+            int lineStart = pending.lastIndexOf("\n") + 1;
+            int ready = pending.length();
+            if (pending.indexOf("*", lineStart) >= 0) {
+                ready = lineStart;
+            } else if (ready > lineStart && pending.charAt(ready - 1) == '-') {
+                ready--;
+            }
+            return emit(ready);
+        }
+
+        String finish() {
+            return emit(pending.length()).stripTrailing();
+        }
+
+        private String emit(int length) {
+            String formatted = applyAnalysisFormatting(pending.substring(0, length));
+            pending.delete(0, length);
+            if (!started) {
+                formatted = formatted.stripLeading();
+                started = !formatted.isEmpty();
+            }
+            return formatted;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.spring.outfit_rater.service;
+
+import com.spring.outfit_rater.model.ChatMessage;
+import com.spring.outfit_rater.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+@Slf4j
+public class ChatMessageWriter {
+
+    private static final String NEXT_ID_BLOCK = "SELECT nextval('chat_messages_seq')";
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final ChatMessageRepository messageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<ChatMessage> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Thread flusher;
+    private final Timer flushTimer;
+    private final Counter writeThroughCounter;
+    private final Counter failedCounter;
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    private volatile boolean running = true;
+    private long nextId;
+    private long idBlockEnd = -1;
+
+    public ChatMessageWriter(ChatMessageRepository messageRepository, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${chat.write-behind.batch-size:50}") int batchSize,
+                             @Value("${chat.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                             @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity) {
+        this.messageRepository = messageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flusher = new Thread(this::runFlusher, "chat-message-writer");
+
+        Gauge.builder("chat.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Chat messages waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.writer.flush")
+                .description("Time spent writing a batch of chat messages")
+                .register(meterRegistry);
+        this.writeThroughCounter = Counter.builder("chat.writer.write.through")
+                .description("Chat messages written synchronously because the queue was full or stopped")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("chat.writer.failed")
+                .description("Chat messages that could not be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+        log.info("Chat message writer started - batch size: {}, flush interval: {}ms", batchSize, flushIntervalMs);
+    }
+
+    public ChatMessage write(ChatMessage message) {
+        message.setId(allocateId());
+        if (message.getCreatedAt() == null) {
+            message.setCreatedAt(LocalDateTime.now());
+        }
+
+        boolean queued;
+        stateLock.readLock().lock();
+        try {
+            queued = running && queue.offer(message);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+
+        if (!queued) {
+            writeThroughCounter.increment();
+            log.warn("Chat message writer unavailable, writing message {} synchronously", message.getId());
+            ChatMessage saved = messageRepository.save(message);
+            publishPersisted(List.of(saved));
+            return saved;
+        }
+        return message;
+    }
+
+    // Each node holds its own block of ids, so ids only follow send order with a single node writing;
+    // history paging and transcript export rely on that and need a (created_at, id) key before scaling out.
+    private synchronized long allocateId() {
+        if (nextId > idBlockEnd) {
+            nextId = jdbcTemplate.queryForObject(NEXT_ID_BLOCK, Long.class);
+            idBlockEnd = nextId + ID_ALLOCATION_SIZE - 1;
+        }
+        return nextId++;
+    }
+
+    private void runFlusher() {
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || queue.drainTo(batch, batchSize - batch.size()) == 0
+                            && !pollInto(batch, remaining)) {
+                        break;
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private boolean pollInto(List<ChatMessage> batch, long timeoutNanos) throws InterruptedException {
+        ChatMessage next = queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        if (next == null) {
+            return false;
+        }
+        batch.add(next);
+        return true;
+    }
+
+    private void flush(List<ChatMessage> batch) {
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> messageRepository.saveAll(batch)));
+            log.debug("Flushed {} chat messages", batch.size());
+            publishPersisted(List.copyOf(batch));
+        } catch (Exception e) {
+            log.error("Batch write of {} chat messages failed, retrying individually", batch.size(), e);
+            List<ChatMessage> persisted = new ArrayList<>(batch.size());
+            for (ChatMessage message : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> messageRepository.save(message));
+                    persisted.add(message);
+                } catch (Exception individual) {
+                    failedCounter.increment();
+                    log.error("Dropping chat message {} from user {}", message.getId(), message.getUserId(), individual);
+                }
+            }
+            publishPersisted(persisted);
+        }
+    }
+
+    private void publishPersisted(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(new MessagesPersisted(messages));
+        } catch (Exception e) {
+            log.warn("Failed to notify listeners of {} persisted chat messages", messages.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+            if (flusher.isAlive()) {
+                flusher.interrupt();
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<ChatMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.warn("Writing {} chat messages left after writer shutdown", remaining.size());
+            flush(remaining);
+        }
+        log.info("Chat message writer stopped");
+    }
+
+    public record MessagesPersisted(List<ChatMessage> messages) {
+    }
+}
@@ -1,83 +1,175 @@
 package com.spring.outfit_rater.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.outfit_rater.config.ReplicaLagGuard;
 import com.spring.outfit_rater.dto.ChatMessageDto;
+import com.spring.outfit_rater.dto.ChatMessageView;
 import com.spring.outfit_rater.model.ChatMessage;
-import com.spring.outfit_rater.model.Conversation;
-import com.spring.outfit_rater.repository.ChatMessageRepository;
+import com.spring.outfit_rater.repository.ChatMessageReadRepository;
 import com.spring.outfit_rater.repository.ConversationRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ChatService {
 
-    private final ChatMessageRepository messageRepository;
+    private final ChatMessageReadRepository messageReadRepository;
     private final ConversationRepository conversationRepository;
+    private final ConversationContextBuffer contextBuffer;
+    private final ChatMessageWriter messageWriter;
+    private final RoomMessageBuffer roomMessageBuffer;
+    private final Cache<String, Boolean> knownUsers;
+    private final ObjectMapper objectMapper;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public ChatService(ChatMessageRepository messageRepository, ConversationRepository conversationRepository) {
-        this.messageRepository = messageRepository;
+    @Value("${chat.history.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${chat.export.batch-size:500}")
+    private int exportBatchSize;
+
+    public ChatService(ChatMessageReadRepository messageReadRepository, ConversationRepository conversationRepository,
+                       ConversationContextBuffer contextBuffer,
+                       ChatMessageWriter messageWriter, RoomMessageBuffer roomMessageBuffer,
+                       ObjectMapper objectMapper, ReplicaLagGuard replicaLagGuard,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${chat.known-users.max-size:100000}") long maxKnownUsers) {
+        this.messageReadRepository = messageReadRepository;
         this.conversationRepository = conversationRepository;
+        this.contextBuffer = contextBuffer;
+        this.messageWriter = messageWriter;
+        this.roomMessageBuffer = roomMessageBuffer;
+        this.objectMapper = objectMapper;
+        this.replicaLagGuard = replicaLagGuard;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.knownUsers = Caffeine.newBuilder()
+                .maximumSize(maxKnownUsers)
+                .build();
     }
 
-    @Transactional
     public ChatMessage saveMessage(ChatMessageDto dto) {
         if (dto.getRoomCode() == null || dto.getRoomCode().trim().isEmpty()) {
             ensureConversationExists(dto.getUserId());
         }
         
         ChatMessage message = dto.toEntity();
-        ChatMessage saved = messageRepository.save(message);
+        ChatMessage saved = messageWriter.write(message);
+        replicaLagGuard.recordWrite(dto.getUserId());
+        contextBuffer.append(saved);
         
-        log.info("Message saved - User: {}, Type: {}, Room: {}", 
+        log.info("Message queued - User: {}, Type: {}, Room: {}", 
                 dto.getUserId(), dto.getType(), dto.getRoomCode());
         return saved;
     }
 
-    @Transactional(readOnly = true)
-    public List<ChatMessageDto> getRecentPublicMessages() {
-        return messageRepository.findRecentGlobalMessages()
-                .stream()
-                .map(ChatMessageDto::fromEntity)
-                .collect(Collectors.toList());
+    // History pages seek on message id and always come back newest first: the next older page uses the
+    // last element's id as `before`, the next newer page uses the first element's id as `after`.
+    // Id order matches send order only while a single node allocates ids, see ChatMessageWriter.
+    public List<ChatMessageDto> getRoomMessages(String roomCode, Long before, Long after, int limit) {
+        String upperRoomCode = roomCode.toUpperCase();
+        int pageSize = pageSize(limit);
+        Optional<List<ChatMessageDto>> buffered = roomMessageBuffer.getPage(upperRoomCode, before, after, pageSize);
+        if (buffered.isPresent()) {
+            return buffered.get();
+        }
+        if (after != null) {
+            return toNewestFirst(messageReadRepository.findRoomMessagesAfter(upperRoomCode, after, pageSize));
+        }
+        return toDtos(messageReadRepository.findRoomMessagesBefore(upperRoomCode, cursorOrLatest(before), pageSize));
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDto> getRoomMessages(String roomCode, int limit) {
-        return messageRepository.findRecentRoomMessages(roomCode.toUpperCase(), limit)
-                .stream()
-                .map(ChatMessageDto::fromEntity)
-                .collect(Collectors.toList());
+    public List<ChatMessageDto> getUserConversation(String userId, Long before, Long after, int limit) {
+        int pageSize = pageSize(limit);
+        return replicaLagGuard.readAfterOwnWrites(userId, () -> {
+            if (after != null) {
+                return toNewestFirst(messageReadRepository.findGlobalMessagesByUserIdAfter(userId, after, pageSize));
+            }
+            return toDtos(messageReadRepository.findGlobalMessagesByUserIdBefore(userId, cursorOrLatest(before), pageSize));
+        });
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDto> getUserConversation(String userId) {
-        return messageRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(ChatMessageDto::fromEntity)
-                .collect(Collectors.toList());
+    public List<ChatMessageDto> getUserRoomConversation(String userId, String roomCode, Long before, Long after, int limit) {
+        String upperRoomCode = roomCode.toUpperCase();
+        int pageSize = pageSize(limit);
+        return replicaLagGuard.readAfterOwnWrites(userId, () -> {
+            if (after != null) {
+                return toNewestFirst(messageReadRepository.findRoomMessagesByUserIdAfter(userId, upperRoomCode, after, pageSize));
+            }
+            return toDtos(messageReadRepository.findRoomMessagesByUserIdBefore(userId, upperRoomCode, cursorOrLatest(before), pageSize));
+        });
     }
 
-    @Transactional(readOnly = true)
-    public List<ChatMessageDto> getUserRoomConversation(String userId, String roomCode) {
-        return messageRepository.findByUserIdAndRoomCodeOrderByCreatedAtDesc(userId, roomCode.toUpperCase())
-                .stream()
-                .map(ChatMessageDto::fromEntity)
+    // Reads in short keyset batches so a slow download never holds a connection while the client catches up
+    public long exportRoomMessages(String roomCode, OutputStream output) throws IOException {
+        String upperRoomCode = roomCode.toUpperCase();
+        long exported = 0;
+        long afterId = 0;
+        while (true) {
+            long cursor = afterId;
+            List<ChatMessageView> batch = readOnlyTransaction.execute(status ->
+                    messageReadRepository.findRoomMessagesAfter(upperRoomCode, cursor, exportBatchSize));
+            for (ChatMessageView message : batch) {
+                output.write(objectMapper.writeValueAsBytes(ChatMessageDto.fromView(message)));
+                output.write('\n');
+            }
+            output.flush();
+            exported += batch.size();
+
+            if (batch.size() < exportBatchSize) {
+                return exported;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private Long cursorOrLatest(Long before) {
+        return before != null ? before : Long.MAX_VALUE;
+    }
+
+    private List<ChatMessageDto> toNewestFirst(List<ChatMessageView> oldestFirst) {
+        List<ChatMessageDto> page = toDtos(oldestFirst);
+        Collections.reverse(page);
+        return page;
+    }
+
+    private List<ChatMessageDto> toDtos(List<ChatMessageView> messages) {
+        return messages.stream()
+                .map(ChatMessageDto::fromView)
                 .collect(Collectors.toList());
     }
 
     private void ensureConversationExists(String userId) {
-        if (conversationRepository.findByUserId(userId).isEmpty()) {
-            Conversation conversation = Conversation.builder()
-                    .userId(userId)
-                    .build();
-            conversationRepository.save(conversation);
+        if (knownUsers.getIfPresent(userId) != null) {
+            return;
+        }
+        
+        if (conversationRepository.insertIfAbsent(userId, LocalDateTime.now()) > 0) {
             log.info("Created new conversation for user: {}", userId);
         }
+        knownUsers.put(userId, Boolean.TRUE);
     }
 
     public String generateDisplayName(String userId) {
@@ -0,0 +1,113 @@
+package com.spring.outfit_rater.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.outfit_rater.model.ChatMessage;
+import com.spring.outfit_rater.repository.ChatMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@Component
+@Slf4j
+public class ConversationContextBuffer {
+
+    private static final Pattern LINE_BREAKS = Pattern.compile("[\r\n]+");
+    private static final int MAX_LINE_LENGTH = 100;
+
+    private final ChatMessageRepository messageRepository;
+    private final Cache<ContextKey, UserContext> contexts;
+    private final int maxLines;
+
+    public ConversationContextBuffer(ChatMessageRepository messageRepository,
+                                     @Value("${ai.context.max-lines:10}") int maxLines,
+                                     @Value("${ai.context.max-users:10000}") long maxUsers,
+                                     @Value("${ai.context.idle-minutes:30}") long idleMinutes) {
+        this.messageRepository = messageRepository;
+        this.maxLines = maxLines;
+        this.contexts = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    public List<String> getRecentLines(String userId, String roomCode) {
+        return contexts.get(ContextKey.of(userId, roomCode), this::loadContext).snapshot();
+    }
+
+    public void append(ChatMessage message) {
+        UserContext context = contexts.getIfPresent(ContextKey.of(message.getUserId(), message.getRoomCode()));
+        if (context != null) {
+            context.add(toContextLine(message));
+        }
+    }
+
+    public String toContextLine(ChatMessage message) {
+        String role = message.getType() == ChatMessage.MessageType.AI ? "StyleAI" : "User";
+
+        if (message.getImageUrl() != null) {
+            return String.format("- %s posted another questionable outfit", role);
+        }
+
+        String cleanContent = LINE_BREAKS.matcher(message.getContent()).replaceAll(" ")
+                .replace('"', '\'')
+                .trim();
+
+        if (cleanContent.length() > MAX_LINE_LENGTH) {
+            cleanContent = cleanContent.substring(0, MAX_LINE_LENGTH) + "...";
+        }
+
+        return String.format("- %s: %s", role, cleanContent);
+    }
+
+    private UserContext loadContext(ContextKey key) {
+        List<ChatMessage> recentMessages = key.roomCode() == null
+                ? messageRepository.findRecentGlobalMessagesByUserId(key.userId(), maxLines)
+                : messageRepository.findRecentRoomMessagesByUserId(key.userId(), key.roomCode(), maxLines);
+
+        UserContext context = new UserContext(maxLines);
+        for (int i = recentMessages.size() - 1; i >= 0; i--) {
+            context.add(toContextLine(recentMessages.get(i)));
+        }
+
+        log.debug("Loaded {} context lines for user: {} in room: {}", recentMessages.size(), key.userId(), key.roomCode());
+        return context;
+    }
+
+    private record ContextKey(String userId, String roomCode) {
+
+        static ContextKey of(String userId, String roomCode) {
+            boolean global = roomCode == null || roomCode.trim().isEmpty();
+            return new ContextKey(userId, global ? null : roomCode.toUpperCase());
+        }
+    }
+
+    private static class UserContext {
+
+        private final Deque<String> lines;
+        private final int capacity;
+
+        UserContext(int capacity) {
+            this.capacity = capacity;
+            this.lines = new ArrayDeque<>(capacity);
+        }
+
+        synchronized void add(String line) {
+            if (lines.size() == capacity) {
+                lines.removeFirst();
+            }
+            lines.addLast(line);
+        }
+
+        synchronized List<String> snapshot() {
+            return new ArrayList<>(lines);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.spring.outfit_rater.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.outfit_rater.model.ChatMessage;
+import com.spring.outfit_rater.model.ConversationSummary;
+import com.spring.outfit_rater.repository.ChatMessageRepository;
+import com.spring.outfit_rater.repository.ConversationSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ConversationSummaryService {
+
+    private static final int MAX_SUMMARY_LENGTH = 4000;
+
+    private final ConversationSummaryRepository summaryRepository;
+    private final ChatMessageRepository messageRepository;
+    private final ConversationContextBuffer contextBuffer;
+    private final ChatModel chatModel;
+    private final AiProviderGuard providerGuard;
+    private final ThreadPoolExecutor summaryExecutor;
+    private final Cache<String, Optional<String>> summaries;
+    private final Cache<String, AtomicInteger> pendingCounts;
+    private final Set<String> summarizing = ConcurrentHashMap.newKeySet();
+    private final int summarizeEvery;
+    private final int maxBatch;
+
+    public ConversationSummaryService(ConversationSummaryRepository summaryRepository,
+                                      ChatMessageRepository messageRepository,
+                                      ConversationContextBuffer contextBuffer,
+                                      ChatModel chatModel,
+                                      AiProviderGuard providerGuard,
+                                      @Value("${ai.summary.every-messages:10}") int summarizeEvery,
+                                      @Value("${ai.summary.max-batch:50}") int maxBatch,
+                                      @Value("${ai.summary.max-in-flight:1}") int maxInFlight,
+                                      @Value("${ai.summary.queue-capacity:20}") int queueCapacity,
+                                      @Value("${ai.context.max-users:10000}") long maxEntries,
+                                      @Value("${ai.context.idle-minutes:30}") long idleMinutes) {
+        this.summaryRepository = summaryRepository;
+        this.messageRepository = messageRepository;
+        this.contextBuffer = contextBuffer;
+        this.chatModel = chatModel;
+        this.providerGuard = providerGuard;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.summaryExecutor = new ThreadPoolExecutor(
+                maxInFlight, maxInFlight,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ai-summary-" + threadCount.incrementAndGet());
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.summaryExecutor.allowCoreThreadTimeOut(true);
+        this.summarizeEvery = summarizeEvery;
+        this.maxBatch = maxBatch;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+        this.pendingCounts = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    public Optional<String> getSummary(String userId, String roomCode) {
+        String scope = ConversationSummary.scopeFor(roomCode);
+        return summaries.get(key(userId, scope), k -> summaryRepository.findByUserIdAndScope(userId, scope)
+                .map(ConversationSummary::getSummary)
+                .filter(summary -> !summary.isBlank()));
+    }
+
+    @EventListener
+    public void onMessagesPersisted(ChatMessageWriter.MessagesPersisted event) {
+        event.messages().forEach(this::recordMessage);
+    }
+
+    private void recordMessage(ChatMessage message) {
+        if (message.getType() != ChatMessage.MessageType.USER
+                && message.getType() != ChatMessage.MessageType.OUTFIT
+                && message.getType() != ChatMessage.MessageType.AI) {
+            return;
+        }
+
+        String userId = message.getUserId();
+        String scope = ConversationSummary.scopeFor(message.getRoomCode());
+        String key = key(userId, scope);
+
+        AtomicInteger pending = pendingCounts.get(key, k -> new AtomicInteger());
+        if (pending.incrementAndGet() < summarizeEvery || !summarizing.add(key)) {
+            return;
+        }
+
+        try {
+            summaryExecutor.execute(() -> {
+                try {
+                    summarize(userId, scope);
+                } catch (Exception e) {
+                    log.warn("Failed to update conversation summary for user: {} in scope: {} - {}", userId, scope, e.getMessage());
+                } finally {
+                    summarizing.remove(key);
+                }
+            });
+            pending.set(0);
+        } catch (RejectedExecutionException e) {
+            summarizing.remove(key);
+            log.debug("Summary queue full, deferring summary for user: {} in scope: {}", userId, scope);
+        }
+    }
+
+    private void summarize(String userId, String scope) throws Exception {
+        ConversationSummary summary = summaryRepository.findByUserIdAndScope(userId, scope)
+                .orElseGet(() -> ConversationSummary.builder()
+                        .userId(userId)
+                        .scope(scope)
+                        .build());
+
+        List<ChatMessage> newMessages = summary.isGlobal()
+                ? messageRepository.findGlobalMessagesByUserIdAfter(userId, summary.getLastMessageId(), maxBatch)
+                : messageRepository.findRoomMessagesByUserIdAfter(userId, scope, summary.getLastMessageId(), maxBatch);
+
+        if (newMessages.isEmpty()) {
+            return;
+        }
+
+        String transcript = newMessages.stream()
+                .map(contextBuffer::toContextLine)
+                .collect(Collectors.joining("\n"));
+
+        String prompt = String.format("""
+                You maintain a running summary of a user's chats with StyleAI, a sassy fashion roaster.
+
+                Current summary:
+                %s
+
+                New messages:
+                %s
+
+                Rewrite the summary so it includes the new messages. Keep the outfits they posted, \
+                their style habits, running jokes and any advice already given. \
+                Write at most 120 words of plain text, no lists.
+                """,
+                summary.getSummary() != null ? summary.getSummary() : "(none yet)",
+                transcript);
+
+        String updated = providerGuard.callInBackground(() -> chatModel.call(new Prompt(prompt)))
+                .getResult().getOutput().getText();
+
+        if (updated == null || updated.isBlank()) {
+            return;
+        }
+
+        String trimmed = updated.trim();
+        if (trimmed.length() > MAX_SUMMARY_LENGTH) {
+            trimmed = trimmed.substring(0, MAX_SUMMARY_LENGTH);
+        }
+
+        summary.setSummary(trimmed);
+        summary.setLastMessageId(newMessages.get(newMessages.size() - 1).getId());
+        summaryRepository.save(summary);
+        summaries.put(key(userId, scope), Optional.of(trimmed));
+
+        log.info("Updated conversation summary for user: {} in scope: {} ({} new messages)",
+                userId, scope, newMessages.size());
+    }
+
+    private String key(String userId, String scope) {
+        return userId + "|" + scope;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        summaryExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,79 @@
+package com.spring.outfit_rater.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.outfit_rater.dto.ChatMessageDto;
+import com.spring.outfit_rater.repository.ChatMessageReadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.ArrayList;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+@Component
+@Slf4j
+public class GlobalFeedCache {
+
+    private static final int FEED_SIZE = 50;
+
+    private final ChatMessageReadRepository messageReadRepository;
+    private final ObjectMapper objectMapper;
+    private final NavigableMap<Long, ChatMessageDto> messages = new TreeMap<>();
+
+    private volatile Snapshot snapshot;
+    private boolean seeded;
+
+    public record Snapshot(byte[] json, String etag) {
+    }
+
+    public GlobalFeedCache(ChatMessageReadRepository messageReadRepository, ObjectMapper objectMapper) {
+        this.messageReadRepository = messageReadRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized void append(ChatMessageDto message) {
+        if (!message.isGlobalMessage() || message.getId() == null) {
+            return;
+        }
+
+        messages.put(message.getId(), message.toBuilder().streamId(null).build());
+        while (messages.size() > FEED_SIZE) {
+            messages.pollFirstEntry();
+        }
+        snapshot = null;
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        return rebuild();
+    }
+
+    private synchronized Snapshot rebuild() {
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        if (!seeded) {
+            messageReadRepository.findRecentGlobalMessages()
+                    .forEach(message -> messages.putIfAbsent(message.getId(), ChatMessageDto.fromView(message)));
+            while (messages.size() > FEED_SIZE) {
+                messages.pollFirstEntry();
+            }
+            seeded = true;
+            log.debug("Seeded global feed with {} messages", messages.size());
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new ArrayList<>(messages.descendingMap().values()));
+            snapshot = new Snapshot(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize global feed", e);
+        }
+    }
+}
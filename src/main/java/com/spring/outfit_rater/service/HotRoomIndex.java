@@ -0,0 +1,166 @@
+package com.spring.outfit_rater.service;
+
+import com.spring.outfit_rater.config.WebSocketEventListener;
+import com.spring.outfit_rater.dto.HotRoomDto;
+import com.spring.outfit_rater.dto.RoomView;
+import com.spring.outfit_rater.repository.RoastRoomReadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class HotRoomIndex {
+
+    private static final double MIN_SCORE = 0.01;
+
+    private final RoastRoomReadRepository roomReadRepository;
+    private final WebSocketEventListener connectionTracker;
+    private final Map<String, RoomActivity> activity = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), LocalDateTime.now());
+    private long lastRefreshNanos = System.nanoTime();
+
+    @Value("${chat.discovery.half-life-minutes:15}")
+    private double halfLifeMinutes;
+
+    @Value("${chat.discovery.message-weight:1.0}")
+    private double messageWeight;
+
+    @Value("${chat.discovery.outfit-weight:3.0}")
+    private double outfitWeight;
+
+    @Value("${chat.discovery.subscriber-weight-per-minute:0.5}")
+    private double subscriberWeightPerMinute;
+
+    @Value("${chat.discovery.max-rooms:200}")
+    private int maxRooms;
+
+    @Value("${chat.discovery.max-page-size:50}")
+    private int maxPageSize;
+
+    public HotRoomIndex(RoastRoomReadRepository roomReadRepository, WebSocketEventListener connectionTracker) {
+        this.roomReadRepository = roomReadRepository;
+        this.connectionTracker = connectionTracker;
+    }
+
+    public void recordMessage(String roomCode) {
+        activityFor(roomCode).messages.increment();
+    }
+
+    public void recordOutfit(String roomCode) {
+        activityFor(roomCode).outfits.increment();
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public List<HotRoomDto> getPage(Snapshot snapshot, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<HotRoomDto> rooms = snapshot.rooms();
+        int from = (int) Math.min((long) Math.max(page, 0) * pageSize, rooms.size());
+        return rooms.subList(from, Math.min(from + pageSize, rooms.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${chat.discovery.refresh-ms:5000}")
+    public synchronized void refresh() {
+        try {
+            updateScores();
+            snapshot = new Snapshot(rankListedRooms(), LocalDateTime.now());
+            log.debug("Refreshed hot room snapshot with {} rooms", snapshot.rooms().size());
+        } catch (Exception e) {
+            log.error("Failed to refresh hot room snapshot", e);
+        }
+    }
+
+    private void updateScores() {
+        long now = System.nanoTime();
+        double elapsedMinutes = (now - lastRefreshNanos) / 60_000_000_000.0;
+        lastRefreshNanos = now;
+        double decay = Math.pow(0.5, elapsedMinutes / halfLifeMinutes);
+
+        Map<String, Integer> subscribers = connectionTracker.getRoomConnectionCounts();
+        subscribers.keySet().forEach(this::activityFor);
+
+        Iterator<Map.Entry<String, RoomActivity>> iterator = activity.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, RoomActivity> entry = iterator.next();
+            RoomActivity room = entry.getValue();
+            long messages = room.messages.sum();
+            long outfits = room.outfits.sum();
+            int live = subscribers.getOrDefault(entry.getKey(), 0);
+
+            room.score = room.score * decay
+                    + (messages - room.countedMessages) * messageWeight
+                    + (outfits - room.countedOutfits) * outfitWeight
+                    + live * subscriberWeightPerMinute * elapsedMinutes;
+            room.countedMessages = messages;
+            room.countedOutfits = outfits;
+            room.liveSubscribers = live;
+
+            if (room.score < MIN_SCORE && live == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private List<HotRoomDto> rankListedRooms() {
+        List<Map.Entry<String, RoomActivity>> candidates = activity.entrySet().stream()
+                .filter(entry -> entry.getValue().listed != Boolean.FALSE)
+                .sorted(Comparator.comparingDouble((Map.Entry<String, RoomActivity> entry) -> entry.getValue().score).reversed())
+                .limit(maxRooms)
+                .toList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, RoomView> views = roomReadRepository
+                .findByRoomCodeIn(candidates.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(RoomView::getRoomCode, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<HotRoomDto> ranked = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, RoomActivity> candidate : candidates) {
+            RoomActivity room = candidate.getValue();
+            RoomView view = views.get(candidate.getKey());
+            room.listed = view != null && !Boolean.TRUE.equals(view.getIsPrivate());
+            if (room.listed && Boolean.TRUE.equals(view.getIsActive())
+                    && (view.getExpiresAt() == null || view.getExpiresAt().isAfter(now))) {
+                ranked.add(HotRoomDto.fromView(view, room.liveSubscribers, room.score));
+            }
+        }
+        return List.copyOf(ranked);
+    }
+
+    private RoomActivity activityFor(String roomCode) {
+        return activity.computeIfAbsent(roomCode.toUpperCase(), key -> new RoomActivity());
+    }
+
+    public record Snapshot(List<HotRoomDto> rooms, LocalDateTime generatedAt) {
+    }
+
+    private static class RoomActivity {
+
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder outfits = new LongAdder();
+        private long countedMessages;
+        private long countedOutfits;
+        private double score;
+        private int liveSubscribers;
+        private Boolean listed;
+    }
+}
@@ -0,0 +1,229 @@
+package com.spring.outfit_rater.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class ImageProcessingService {
+
+    public static final String OUTPUT_CONTENT_TYPE = "image/jpeg";
+    public static final String OUTPUT_EXTENSION = ".jpg";
+
+    private static final int VISION_MAX_LONG_SIDE = 2048;
+    private static final int VISION_MAX_SHORT_SIDE = 768;
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final int EXIF_SCAN_BYTES = 128 * 1024;
+
+    @Value("${image.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${image.thumbnail.max-side:320}")
+    private int thumbnailMaxSide;
+
+    @Value("${image.thumbnail.jpeg-quality:0.75}")
+    private float thumbnailQuality;
+
+    public record ProcessedImage(byte[] image, byte[] thumbnail, int width, int height) {
+    }
+
+    public Optional<ProcessedImage> process(InputStreamSource source) throws IOException {
+        BufferedImage decoded;
+        try (InputStream stream = source.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IllegalArgumentException("Image dimensions are too large");
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = subsamplingFor(width, height);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        int orientation;
+        try (InputStream stream = source.getInputStream()) {
+            orientation = readExifOrientation(stream.readNBytes(EXIF_SCAN_BYTES));
+        }
+        boolean swapsSides = orientation >= 5;
+        int orientedWidth = swapsSides ? decoded.getHeight() : decoded.getWidth();
+        int orientedHeight = swapsSides ? decoded.getWidth() : decoded.getHeight();
+
+        double scale = Math.min(1.0, Math.min(
+                (double) VISION_MAX_LONG_SIDE / Math.max(orientedWidth, orientedHeight),
+                (double) VISION_MAX_SHORT_SIDE / Math.min(orientedWidth, orientedHeight)));
+        int targetWidth = Math.max(1, (int) Math.round(orientedWidth * scale));
+        int targetHeight = Math.max(1, (int) Math.round(orientedHeight * scale));
+
+        AffineTransform transform = AffineTransform.getScaleInstance(
+                (double) targetWidth / orientedWidth, (double) targetHeight / orientedHeight);
+        transform.concatenate(orientationTransform(orientation, decoded.getWidth(), decoded.getHeight()));
+        BufferedImage resized = render(decoded, transform, targetWidth, targetHeight);
+
+        double thumbnailScale = Math.min(1.0, (double) thumbnailMaxSide / Math.max(targetWidth, targetHeight));
+        int thumbnailWidth = Math.max(1, (int) Math.round(targetWidth * thumbnailScale));
+        int thumbnailHeight = Math.max(1, (int) Math.round(targetHeight * thumbnailScale));
+        BufferedImage thumbnail = render(resized,
+                AffineTransform.getScaleInstance(thumbnailScale, thumbnailScale), thumbnailWidth, thumbnailHeight);
+
+        byte[] image = encodeJpeg(resized, jpegQuality);
+        log.debug("Processed image {}x{} -> {}x{} ({} bytes)", decoded.getWidth(), decoded.getHeight(),
+                targetWidth, targetHeight, image.length);
+
+        return Optional.of(new ProcessedImage(image, encodeJpeg(thumbnail, thumbnailQuality), targetWidth, targetHeight));
+    }
+
+    private int subsamplingFor(int width, int height) {
+        double scale = Math.min(
+                (double) VISION_MAX_LONG_SIDE / Math.max(width, height),
+                (double) VISION_MAX_SHORT_SIDE / Math.min(width, height));
+        return Math.max(1, (int) Math.floor(1.0 / (scale * 2)));
+    }
+
+    private BufferedImage render(BufferedImage source, AffineTransform transform, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private AffineTransform orientationTransform(int orientation, int width, int height) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> new AffineTransform();
+        };
+    }
+
+    private int readExifOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+
+        int position = 2;
+        while (position + 4 <= data.length) {
+            if ((data[position] & 0xFF) != 0xFF) {
+                return 1;
+            }
+            int marker = data[position + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) {
+                return 1;
+            }
+            int length = readUnsignedShort(data, position + 2, false);
+            int segmentEnd = position + 2 + length;
+            if (marker == 0xE1 && length >= 16 && segmentEnd <= data.length && isExifHeader(data, position + 4)) {
+                return readTiffOrientation(data, position + 10, segmentEnd);
+            }
+            position = segmentEnd;
+        }
+        return 1;
+    }
+
+    private boolean isExifHeader(byte[] data, int offset) {
+        return data[offset] == 'E' && data[offset + 1] == 'x' && data[offset + 2] == 'i'
+                && data[offset + 3] == 'f' && data[offset + 4] == 0 && data[offset + 5] == 0;
+    }
+
+    private int readTiffOrientation(byte[] data, int tiffStart, int end) {
+        if (tiffStart + 8 > end) {
+            return 1;
+        }
+
+        boolean littleEndian = data[tiffStart] == 'I' && data[tiffStart + 1] == 'I';
+        long ifdOffset = readUnsignedInt(data, tiffStart + 4, littleEndian);
+        if (ifdOffset < 8 || tiffStart + ifdOffset + 2 > end) {
+            return 1;
+        }
+
+        int ifd = (int) (tiffStart + ifdOffset);
+        int entryCount = readUnsignedShort(data, ifd, littleEndian);
+        for (int i = 0; i < entryCount; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (readUnsignedShort(data, entry, littleEndian) == 0x0112) {
+                int orientation = readUnsignedShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private int readUnsignedShort(byte[] data, int offset, boolean littleEndian) {
+        int first = data[offset] & 0xFF;
+        int second = data[offset + 1] & 0xFF;
+        return littleEndian ? (second << 8) | first : (first << 8) | second;
+    }
+
+    private long readUnsignedInt(byte[] data, int offset, boolean littleEndian) {
+        long high = readUnsignedShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        long low = readUnsignedShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
@@ -0,0 +1,230 @@
+package com.spring.outfit_rater.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.outfit_rater.dto.ChatMessageDto;
+import com.spring.outfit_rater.model.ChatMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@Slf4j
+public class MessageReactionService {
+
+    private static final String APPLY_REACTIONS = """
+            UPDATE chat_messages cm
+            SET reaction_count = COALESCE(cm.reaction_count, 0) + d.delta
+            FROM unnest(?::bigint[], ?::varchar[], ?::int[]) AS d(id, room_code, delta)
+            WHERE cm.id = d.id AND cm.room_code = d.room_code
+            RETURNING cm.id, cm.room_code, cm.reaction_count
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RoomMessageBuffer roomMessageBuffer;
+    private final Map<ReactionKey, ReactionCounter> counters = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> reactions;
+    private final Counter receivedCounter;
+    private final Counter droppedCounter;
+    private final Timer flushTimer;
+
+    @Value("${chat.reactions.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.reactions.max-missed-flushes:20}")
+    private int maxMissedFlushes;
+
+    @Value("${chat.reactions.idle-flushes:120}")
+    private int idleFlushes;
+
+    public MessageReactionService(JdbcTemplate jdbcTemplate, SimpMessagingTemplate messagingTemplate,
+                                  RoomMessageBuffer roomMessageBuffer, MeterRegistry meterRegistry,
+                                  @Value("${chat.reactions.max-tracked:100000}") long maxTrackedReactions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.roomMessageBuffer = roomMessageBuffer;
+        this.reactions = Caffeine.newBuilder()
+                .maximumSize(maxTrackedReactions)
+                .build();
+
+        Gauge.builder("chat.reactions.pending.messages", counters, Map::size)
+                .description("Messages with reaction counters held in memory")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("chat.reactions.received")
+                .description("Reactions accepted from clients")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("chat.reactions.dropped")
+                .description("Reactions dropped because their message was never found")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.reactions.flush")
+                .description("Time spent writing a batch of reaction counts")
+                .register(meterRegistry);
+    }
+
+    public boolean react(String roomCode, Long messageId, String userId) {
+        if (messageId == null || reactions.asMap().putIfAbsent(messageId + ":" + userId, Boolean.TRUE) != null) {
+            return false;
+        }
+
+        record(new ReactionKey(roomCode.toUpperCase(), messageId), 1);
+        receivedCounter.increment();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.reactions.flush-interval-ms:500}")
+    public synchronized void flush() {
+        List<PendingFlush> pending = new ArrayList<>();
+        for (Map.Entry<ReactionKey, ReactionCounter> entry : counters.entrySet()) {
+            ReactionCounter counter = entry.getValue();
+            long total = counter.clicks.sum();
+            if (total > counter.flushed) {
+                counter.idleFlushes = 0;
+                pending.add(new PendingFlush(entry.getKey(), counter, total));
+            } else if (++counter.idleFlushes >= idleFlushes) {
+                retire(entry.getKey(), counter);
+            }
+        }
+
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<PendingFlush> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            try {
+                Map<ReactionKey, Integer> applied = flushTimer.record(() -> apply(batch));
+                complete(batch, applied);
+            } catch (Exception e) {
+                log.error("Failed to write reaction counts for {} messages, will retry", batch.size(), e);
+            }
+        }
+    }
+
+    private Map<ReactionKey, Integer> apply(List<PendingFlush> batch) {
+        Long[] ids = new Long[batch.size()];
+        String[] roomCodes = new String[batch.size()];
+        Integer[] deltas = new Integer[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingFlush flush = batch.get(i);
+            ids[i] = flush.key().messageId();
+            roomCodes[i] = flush.key().roomCode();
+            deltas[i] = Math.toIntExact(flush.total() - flush.counter().flushed);
+        }
+
+        Map<ReactionKey, Integer> applied = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(APPLY_REACTIONS);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setArray(2, connection.createArrayOf("varchar", roomCodes));
+            statement.setArray(3, connection.createArrayOf("integer", deltas));
+            return statement;
+        }, rs -> {
+            applied.put(new ReactionKey(rs.getString("room_code"), rs.getLong("id")), rs.getInt("reaction_count"));
+        });
+        return applied;
+    }
+
+    private void complete(List<PendingFlush> batch, Map<ReactionKey, Integer> applied) {
+        for (PendingFlush flush : batch) {
+            ReactionCounter counter = flush.counter();
+            Integer reactionCount = applied.get(flush.key());
+            if (reactionCount != null) {
+                counter.flushed = flush.total();
+                counter.missedFlushes = 0;
+                broadcast(flush.key(), reactionCount);
+            } else if (++counter.missedFlushes >= maxMissedFlushes) {
+                long dropped = flush.total() - counter.flushed;
+                counter.flushed = flush.total();
+                droppedCounter.increment(dropped);
+                log.warn("Dropping {} reactions for unknown message {} in room {}",
+                        dropped, flush.key().messageId(), flush.key().roomCode());
+            }
+        }
+    }
+
+    private void broadcast(ReactionKey key, int reactionCount) {
+        try {
+            ChatMessageDto update = ChatMessageDto.builder()
+                    .id(key.messageId())
+                    .userId("System")
+                    .content("")
+                    .type(ChatMessage.MessageType.REACTION)
+                    .roomCode(key.roomCode())
+                    .reactionCount(reactionCount)
+                    .build();
+
+            messagingTemplate.convertAndSend("/topic/room/" + key.roomCode(), update);
+            roomMessageBuffer.updateReactionCount(key.roomCode(), key.messageId(), reactionCount);
+        } catch (Exception e) {
+            log.error("Failed to broadcast reaction count for message {}", key.messageId(), e);
+        }
+    }
+
+    private void record(ReactionKey key, long clicks) {
+        ReactionCounter counter = counters.computeIfAbsent(key, k -> new ReactionCounter());
+        counter.clicks.add(clicks);
+        if (counter.retired) {
+            transferLeftover(key, counter);
+        }
+    }
+
+    // A click that lands on a counter while it is being retired is moved into a fresh counter, either by
+    // retire itself or by the clicking thread once it sees the retired flag; the CAS ensures it moves once.
+    private void retire(ReactionKey key, ReactionCounter counter) {
+        counter.transferred.set(counter.flushed);
+        if (counters.remove(key, counter)) {
+            counter.retired = true;
+            transferLeftover(key, counter);
+        }
+    }
+
+    private void transferLeftover(ReactionKey key, ReactionCounter counter) {
+        while (true) {
+            long transferred = counter.transferred.get();
+            long leftover = counter.clicks.sum() - transferred;
+            if (leftover <= 0) {
+                return;
+            }
+            if (counter.transferred.compareAndSet(transferred, transferred + leftover)) {
+                record(key, leftover);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        log.info("Reaction counters flushed on shutdown");
+    }
+
+    private record ReactionKey(String roomCode, long messageId) {
+    }
+
+    private record PendingFlush(ReactionKey key, ReactionCounter counter, long total) {
+    }
+
+    private static class ReactionCounter {
+
+        private final LongAdder clicks = new LongAdder();
+        private final AtomicLong transferred = new AtomicLong();
+        private volatile boolean retired;
+        private long flushed;
+        private int idleFlushes;
+        private int missedFlushes;
+    }
+}
@@ -0,0 +1,225 @@
+package com.spring.outfit_rater.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@Slf4j
+public class MessageRetentionService {
+
+    private static final String PARENT_TABLE = "chat_messages";
+    private static final String DEFAULT_PARTITION = "chat_messages_default";
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int ARCHIVE_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.retention.days:90}")
+    private int retentionDays;
+
+    @Value("${chat.retention.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${chat.retention.archive-dir:archive/chat_messages}")
+    private String archiveDir;
+
+    public MessageRetentionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createUpcomingPartitionsOnStartup() {
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Failed to create upcoming message partitions", e);
+        }
+    }
+
+    @Scheduled(cron = "${chat.retention.cron:0 30 3 * * *}")
+    public void runRetention() {
+        log.info("Starting message retention run");
+        
+        // Independent steps: a failure creating partitions must not stop archival, or the reverse
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Failed to create upcoming message partitions", e);
+        }
+
+        try {
+            archiveExpiredPartitions();
+        } catch (Exception e) {
+            log.error("Failed to archive expired message partitions", e);
+        }
+
+        log.info("Completed message retention run");
+    }
+
+    public void createUpcomingPartitions() {
+        LocalDateTime horizon = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay()
+                .plusMonths(monthsAhead + 1L);
+        LocalDateTime next = latestUpperBound();
+        if (next == null) {
+            log.warn("No ranged partitions found for {}, skipping partition creation", PARENT_TABLE);
+            return;
+        }
+
+        while (next.isBefore(horizon)) {
+            LocalDateTime end = next.plusMonths(1);
+            createPartition(PARENT_TABLE + "_p" + next.format(PARTITION_SUFFIX), next, end);
+            next = end;
+        }
+    }
+
+    // Rows that arrived while no partition covered their month sit in the default partition, and Postgres
+    // refuses to create an overlapping partition; move them into the new table before attaching it.
+    private void createPartition(String partition, LocalDateTime start, LocalDateTime end) {
+        String from = start.format(BOUND_FORMAT);
+        String to = end.format(BOUND_FORMAT);
+        Boolean stranded = jdbcTemplate.queryForObject(String.format(
+                "SELECT EXISTS (SELECT 1 FROM %s WHERE created_at >= '%s' AND created_at < '%s')",
+                DEFAULT_PARTITION, from, to), Boolean.class);
+
+        if (!Boolean.TRUE.equals(stranded)) {
+            jdbcTemplate.execute(String.format("CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, PARENT_TABLE, from, to));
+            log.info("Created message partition {}", partition);
+            return;
+        }
+
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(String.format("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+                    partition, PARENT_TABLE));
+            int rows = jdbcTemplate.update(String.format(
+                    "WITH moved AS (DELETE FROM %s WHERE created_at >= '%s' AND created_at < '%s' RETURNING *) "
+                            + "INSERT INTO %s SELECT * FROM moved", DEFAULT_PARTITION, from, to, partition));
+            jdbcTemplate.execute(String.format("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                    PARENT_TABLE, partition, from, to));
+            return rows;
+        });
+        log.warn("Created message partition {} and moved {} messages into it from {}", partition, moved, DEFAULT_PARTITION);
+    }
+
+    public void archiveExpiredPartitions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+
+        for (Map.Entry<String, LocalDateTime> partition : rangedPartitions().entrySet()) {
+            if (partition.getValue().isAfter(cutoff)) {
+                continue;
+            }
+
+            String name = partition.getKey();
+            if (hasMessagesFromActiveRooms(name)) {
+                log.info("Partition {} still holds messages from active rooms, keeping it", name);
+                continue;
+            }
+
+            Path archive = archivePartition(name);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", PARENT_TABLE, name));
+                jdbcTemplate.execute(String.format("DROP TABLE %s", name));
+            });
+            log.info("Archived partition {} to {} and dropped it", name, archive);
+        }
+    }
+
+    // Expired rooms keep is_active = true until the optional cleanup job runs, so check expiry here as well
+    private boolean hasMessagesFromActiveRooms(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(String.format(
+                "SELECT EXISTS (SELECT 1 FROM %s m JOIN roast_rooms r ON r.room_code = m.room_code "
+                        + "WHERE r.is_active = true AND (r.expires_at IS NULL OR r.expires_at > ?))", partition),
+                Boolean.class, LocalDateTime.now()));
+    }
+
+    private Path archivePartition(String partition) {
+        Path directory = Paths.get(archiveDir);
+        Path target = directory.resolve(partition + ".ndjson.gz");
+        Path temporary = directory.resolve(partition + ".ndjson.gz.tmp");
+        AtomicLong rows = new AtomicLong();
+        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+
+        try {
+            Files.createDirectories(directory);
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+                 GZIPOutputStream output = new GZIPOutputStream(file, 64 * 1024)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+                    cursor.setFetchSize(ARCHIVE_FETCH_SIZE);
+                    cursor.query(String.format("SELECT * FROM %s ORDER BY id", partition), resultSet -> {
+                        try {
+                            output.write(objectMapper.writeValueAsBytes(rowMapper.mapRow(resultSet, 0)));
+                            output.write('\n');
+                            rows.incrementAndGet();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                });
+                output.finish();
+                file.getFD().sync();
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive partition " + partition, e);
+        }
+
+        log.info("Wrote {} messages from {} to {}", rows.get(), partition, target);
+        return target;
+    }
+
+    private LocalDateTime latestUpperBound() {
+        return rangedPartitions().values().stream()
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+    }
+
+    private Map<String, LocalDateTime> rangedPartitions() {
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound "
+                        + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = ?::regclass", PARENT_TABLE);
+
+        Map<String, LocalDateTime> bounds = new TreeMap<>();
+        for (Map<String, Object> partition : partitions) {
+            Matcher matcher = UPPER_BOUND.matcher((String) partition.get("bound"));
+            if (matcher.find()) {
+                bounds.put((String) partition.get("name"), LocalDateTime.parse(matcher.group(1), BOUND_FORMAT));
+            }
+        }
+        return bounds;
+    }
+}
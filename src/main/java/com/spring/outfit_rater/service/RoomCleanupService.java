@@ -25,7 +25,7 @@ public class RoomCleanupService {
     }
 
 
-    @Scheduled(fixedRate = 30 * 60 * 1000) 
+    @Scheduled(cron = "${room.cleanup.cron:-}")
     @Transactional
     public void cleanupExpiredRoomsAndInactiveParticipants() {
         log.info("Starting scheduled cleanup of rooms and participants");
@@ -42,7 +42,7 @@ public class RoomCleanupService {
     }
 
    
-    @Scheduled(fixedRate = 5 * 60 * 1000)
+    @Scheduled(cron = "${room.cleanup.activity-cron:-}")
     @Transactional
     public void updateParticipantActivityStatus() {
         try {
@@ -50,10 +50,8 @@ public class RoomCleanupService {
             List<RoomParticipant> inactiveParticipants = participantRepository.findInactiveParticipants(threshold);
             
             for (RoomParticipant participant : inactiveParticipants) {
-                if (participant.getIsActive()) {
-                    participant.setIsActive(false);
-                    participantRepository.save(participant);
-                    
+                if (participant.getIsActive()
+                        && roomService.deactivateParticipant(participant.getRoom().getRoomCode(), participant.getUserId())) {
                     log.debug("Marked participant {} as inactive in room {}", 
                              participant.getUserId(), 
                              participant.getRoom().getRoomCode());
@@ -0,0 +1,112 @@
+package com.spring.outfit_rater.service;
+
+import com.spring.outfit_rater.exception.RoomException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+@Component
+@Slf4j
+public class RoomCodeGenerator {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int CODE_LENGTH = 8;
+    static final long CODE_SPACE = 2_821_109_907_456L; // 36^8
+    private static final int HALF_BITS = 21;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 8;
+    private static final String NEXT_BLOCK = "SELECT nextval('room_code_seq')";
+    private static final int BLOCK_SIZE = 100;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecretKeySpec key;
+
+    private long nextValue;
+    private long blockEnd = -1;
+
+    public RoomCodeGenerator(JdbcTemplate jdbcTemplate, @Value("${room.code.secret}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("room.code.secret must be configured");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+    }
+
+    public String nextCode() {
+        return codeFor(allocate());
+    }
+
+    String codeFor(long sequenceValue) {
+        return encode(permute(sequenceValue));
+    }
+
+    private synchronized long allocate() {
+        if (nextValue > blockEnd) {
+            nextValue = jdbcTemplate.queryForObject(NEXT_BLOCK, Long.class);
+            blockEnd = nextValue + BLOCK_SIZE - 1;
+            log.debug("Reserved room code block starting at {}", nextValue);
+        }
+        if (nextValue >= CODE_SPACE) {
+            throw new RoomException("Room code space exhausted", "CODE_GENERATION_FAILED");
+        }
+        return nextValue++;
+    }
+
+    // Cycle-walk the 42-bit Feistel permutation until it lands back inside 36^8,
+    // which keeps it a bijection on the code space.
+    private long permute(long value) {
+        Mac mac = newMac();
+        long permuted = value;
+        do {
+            permuted = feistel(mac, permuted);
+        } while (permuted >= CODE_SPACE);
+        return permuted;
+    }
+
+    private long feistel(Mac mac, long value) {
+        long left = value >>> HALF_BITS;
+        long right = value & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            long mixed = left ^ roundFunction(mac, round, right);
+            left = right;
+            right = mixed;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private long roundFunction(Mac mac, int round, long half) {
+        mac.update((byte) round);
+        mac.update((byte) (half >>> 16));
+        mac.update((byte) (half >>> 8));
+        mac.update((byte) half);
+        byte[] digest = mac.doFinal();
+        long result = ((digest[0] & 0xFFL) << 16) | ((digest[1] & 0xFFL) << 8) | (digest[2] & 0xFFL);
+        return result & HALF_MASK;
+    }
+
+    private String encode(long value) {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET.charAt((int) (value % ALPHABET.length()));
+            value /= ALPHABET.length();
+        }
+        return new String(code);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise room code MAC", e);
+        }
+    }
+}
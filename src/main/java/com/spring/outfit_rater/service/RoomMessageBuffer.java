@@ -0,0 +1,147 @@
+package com.spring.outfit_rater.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.outfit_rater.dto.ChatMessageDto;
+import com.spring.outfit_rater.dto.ChatMessageView;
+import com.spring.outfit_rater.repository.ChatMessageReadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Component
+@Slf4j
+public class RoomMessageBuffer {
+
+    private final ChatMessageReadRepository messageReadRepository;
+    private final Cache<String, RoomHistory> rooms;
+    private final int messagesPerRoom;
+
+    public RoomMessageBuffer(ChatMessageReadRepository messageReadRepository,
+                             @Value("${chat.room-buffer.messages-per-room:100}") int messagesPerRoom,
+                             @Value("${chat.room-buffer.max-rooms:1000}") long maxRooms,
+                             @Value("${chat.room-buffer.idle-minutes:30}") long idleMinutes) {
+        this.messageReadRepository = messageReadRepository;
+        this.messagesPerRoom = messagesPerRoom;
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    public void append(ChatMessageDto message) {
+        if (message.isGlobalMessage() || message.getId() == null) {
+            return;
+        }
+
+        rooms.get(message.getRoomCode().toUpperCase(), roomCode -> new RoomHistory(messagesPerRoom))
+                .add(message.toBuilder().streamId(null).build());
+    }
+
+    public Optional<List<ChatMessageDto>> getPage(String roomCode, Long before, Long after, int pageSize) {
+        if (pageSize > messagesPerRoom) {
+            return Optional.empty();
+        }
+
+        String upperRoomCode = roomCode.toUpperCase();
+        RoomHistory history = rooms.get(upperRoomCode, key -> new RoomHistory(messagesPerRoom));
+        if (!history.isSeeded()) {
+            List<ChatMessageView> recent = messageReadRepository.findRoomMessagesBefore(upperRoomCode, Long.MAX_VALUE, messagesPerRoom);
+            history.seed(recent.stream().map(ChatMessageDto::fromView).toList(), recent.size() < messagesPerRoom);
+            log.debug("Seeded room buffer for {} with {} messages", upperRoomCode, recent.size());
+        }
+
+        return history.page(before, after, pageSize);
+    }
+
+    public void updateReactionCount(String roomCode, Long messageId, int reactionCount) {
+        RoomHistory history = rooms.getIfPresent(roomCode.toUpperCase());
+        if (history != null) {
+            history.updateReactionCount(messageId, reactionCount);
+        }
+    }
+
+    public void evict(String roomCode) {
+        rooms.invalidate(roomCode.toUpperCase());
+    }
+
+    private static class RoomHistory {
+
+        private final NavigableMap<Long, ChatMessageDto> messages = new TreeMap<>();
+        private final int capacity;
+        private boolean seeded;
+        private boolean reachesRoomStart;
+
+        RoomHistory(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized boolean isSeeded() {
+            return seeded;
+        }
+
+        synchronized void add(ChatMessageDto message) {
+            messages.put(message.getId(), message);
+            trim();
+        }
+
+        synchronized void updateReactionCount(Long messageId, int reactionCount) {
+            messages.computeIfPresent(messageId,
+                    (id, message) -> message.toBuilder().reactionCount(reactionCount).build());
+        }
+
+        synchronized void seed(List<ChatMessageDto> recent, boolean reachesRoomStart) {
+            if (seeded) {
+                return;
+            }
+            recent.forEach(message -> messages.putIfAbsent(message.getId(), message));
+            this.reachesRoomStart = reachesRoomStart;
+            this.seeded = true;
+            trim();
+        }
+
+        synchronized Optional<List<ChatMessageDto>> page(Long before, Long after, int pageSize) {
+            if (messages.isEmpty()) {
+                return reachesRoomStart ? Optional.of(List.of()) : Optional.empty();
+            }
+
+            if (after != null) {
+                if (!reachesRoomStart && after < messages.firstKey()) {
+                    return Optional.empty();
+                }
+                List<ChatMessageDto> page = new ArrayList<>(pageSize);
+                for (ChatMessageDto message : messages.tailMap(after, false).values()) {
+                    if (page.size() == pageSize) {
+                        break;
+                    }
+                    page.add(message);
+                }
+                Collections.reverse(page);
+                return Optional.of(page);
+            }
+
+            NavigableMap<Long, ChatMessageDto> older = before != null
+                    ? messages.headMap(before, false).descendingMap()
+                    : messages.descendingMap();
+            if (older.size() < pageSize && !reachesRoomStart) {
+                return Optional.empty();
+            }
+            return Optional.of(older.values().stream().limit(pageSize).toList());
+        }
+
+        private void trim() {
+            while (messages.size() > capacity) {
+                messages.pollFirstEntry();
+                reachesRoomStart = false;
+            }
+        }
+    }
+}
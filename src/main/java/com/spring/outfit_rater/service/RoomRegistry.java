@@ -0,0 +1,106 @@
+package com.spring.outfit_rater.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.spring.outfit_rater.config.ReplicaLagGuard;
+import com.spring.outfit_rater.model.RoomParticipant;
+import com.spring.outfit_rater.repository.RoastRoomRepository;
+import com.spring.outfit_rater.repository.RoomParticipantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class RoomRegistry {
+
+    private final RoastRoomRepository roomRepository;
+    private final RoomParticipantRepository participantRepository;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final LoadingCache<String, Optional<RoomState>> rooms;
+
+    public RoomRegistry(RoastRoomRepository roomRepository, RoomParticipantRepository participantRepository,
+                        ReplicaLagGuard replicaLagGuard,
+                        @Value("${chat.room-registry.max-rooms:10000}") long maxRooms,
+                        @Value("${chat.room-registry.idle-minutes:30}") long idleMinutes,
+                        @Value("${chat.room-registry.ttl-minutes:10}") long ttlMinutes) {
+        this.roomRepository = roomRepository;
+        this.participantRepository = participantRepository;
+        this.replicaLagGuard = replicaLagGuard;
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build(this::load);
+    }
+
+    public Optional<RoomState> find(String roomCode) {
+        return rooms.get(roomCode.toUpperCase().trim());
+    }
+
+    public boolean isMember(String roomCode, String userId) {
+        return find(roomCode)
+                .map(room -> room.isMember(userId))
+                .orElse(false);
+    }
+
+    public boolean canJoin(String roomCode) {
+        return find(roomCode)
+                .map(RoomState::isJoinable)
+                .orElse(false);
+    }
+
+    public void invalidate(String roomCode) {
+        String upperRoomCode = roomCode.toUpperCase().trim();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    rooms.invalidate(upperRoomCode);
+                }
+            });
+        } else {
+            rooms.invalidate(upperRoomCode);
+        }
+    }
+
+    private Optional<RoomState> load(String roomCode) {
+        return replicaLagGuard.readFromPrimary(() -> roomRepository.findByRoomCode(roomCode)
+                .map(room -> {
+                    Set<String> activeMembers = participantRepository.findActiveParticipantsByRoomCode(roomCode).stream()
+                            .map(RoomParticipant::getUserId)
+                            .collect(Collectors.toUnmodifiableSet());
+                    log.debug("Loaded room {} into registry with {} active members", roomCode, activeMembers.size());
+                    return new RoomState(roomCode, Boolean.TRUE.equals(room.getIsActive()), room.getExpiresAt(),
+                            room.getMaxParticipants(), room.getActiveParticipantCount(), activeMembers);
+                }));
+    }
+
+    public record RoomState(String roomCode, boolean active, LocalDateTime expiresAt, int maxParticipants,
+                            int participantCount, Set<String> activeMembers) {
+
+        public boolean isMember(String userId) {
+            return activeMembers.contains(userId);
+        }
+
+        public boolean isExpired() {
+            return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
+        }
+
+        public boolean isFull() {
+            return participantCount >= maxParticipants;
+        }
+
+        public boolean isJoinable() {
+            return active && !isExpired() && !isFull();
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package com.spring.outfit_rater.service;
 
+import com.spring.outfit_rater.config.ReplicaLagGuard;
 import com.spring.outfit_rater.dto.*;
 import com.spring.outfit_rater.exception.RoomException;
 import com.spring.outfit_rater.model.RoastRoom;
 import com.spring.outfit_rater.model.RoomParticipant;
+import com.spring.outfit_rater.repository.RoastRoomReadRepository;
 import com.spring.outfit_rater.repository.RoastRoomRepository;
 import com.spring.outfit_rater.repository.RoomParticipantRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,19 +25,32 @@ import java.util.stream.Collectors;
 public class RoomService {
 
     private final RoastRoomRepository roomRepository;
+    private final RoastRoomReadRepository roomReadRepository;
     private final RoomParticipantRepository participantRepository;
     private final ChatService chatService;
+    private final RoomMessageBuffer roomMessageBuffer;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final RoomRegistry roomRegistry;
+    private final RoomCodeGenerator roomCodeGenerator;
     
     private static final int MAX_ROOMS_PER_USER = 3;
-    private static final String ROOM_CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    private static final Random random = new Random();
 
     public RoomService(RoastRoomRepository roomRepository, 
+                      RoastRoomReadRepository roomReadRepository,
                       RoomParticipantRepository participantRepository,
-                      ChatService chatService) {
+                      ChatService chatService,
+                      RoomMessageBuffer roomMessageBuffer,
+                      ReplicaLagGuard replicaLagGuard,
+                      RoomRegistry roomRegistry,
+                      RoomCodeGenerator roomCodeGenerator) {
         this.roomRepository = roomRepository;
+        this.roomReadRepository = roomReadRepository;
         this.participantRepository = participantRepository;
         this.chatService = chatService;
+        this.roomMessageBuffer = roomMessageBuffer;
+        this.replicaLagGuard = replicaLagGuard;
+        this.roomRegistry = roomRegistry;
+        this.roomCodeGenerator = roomCodeGenerator;
     }
 
     public RoomResponseDto createRoom(CreateRoomRequestDto request, String creatorId) {
@@ -43,7 +59,7 @@ public class RoomService {
             validateCreatorLimits(creatorId);
             
             // Generate unique room code
-            String roomCode = generateUniqueRoomCode();
+            String roomCode = roomCodeGenerator.nextCode();
             
             // Create room entity
             RoastRoom room = RoastRoom.builder()
@@ -58,6 +74,8 @@ public class RoomService {
                     .build();
             
             room = roomRepository.save(room);
+            replicaLagGuard.recordWrite(creatorId);
+            roomRegistry.invalidate(roomCode);
             
             // Add creator as first participant
             addCreatorAsParticipant(room, creatorId);
@@ -86,28 +104,29 @@ public class RoomService {
         try {
             String roomCode = request.getRoomCode().toUpperCase().trim();
             
-            // Find room
             RoastRoom room = roomRepository.findByRoomCode(roomCode)
                     .orElseThrow(() -> new RoomException("Room not found", "ROOM_NOT_FOUND"));
             
             // Validate room state
             validateRoomForJoining(room, userId);
             
-            // Check if user is already a participant
-            Optional<RoomParticipant> existingParticipant = 
-                    participantRepository.findByRoomCodeAndUserId(roomCode, userId);
-            
-            if (existingParticipant.isPresent()) {
-                RoomParticipant participant = existingParticipant.get();
-                if (participant.getIsActive()) {
-                    return RoomResponseDto.error("You're already in this room", "ALREADY_JOINED");
-                } else {
-                    // Reactivate participant
-                    participant.setIsActive(true);
-                    participant.updateLastSeen();
-                    participantRepository.save(participant);
+            replicaLagGuard.recordWrite(userId);
+            roomRegistry.invalidate(roomCode);
+            
+            // Check if user is already an active participant
+            if (participantRepository.isActiveParticipant(room.getId(), userId)) {
+                return RoomResponseDto.error("You're already in this room", "ALREADY_JOINED");
+            }
+            
+            // Take a seat atomically so concurrent joins cannot overfill the room
+            occupySeat(room);
+            
+            // A returning member is reactivated in place; otherwise this is a first join
+            if (participantRepository.reactivateParticipant(room.getId(), userId, LocalDateTime.now()) == 0) {
+                if (participantRepository.findByRoomCodeAndUserId(roomCode, userId).isPresent()) {
+                    throw new RoomException("You're already in this room", "ALREADY_JOINED");
                 }
-            } else {
+                
                 // Create new participant
                 String displayName = request.getDisplayName() != null && !request.getDisplayName().trim().isEmpty()
                         ? request.getDisplayName().trim()
@@ -130,15 +149,14 @@ public class RoomService {
             
             log.info("User {} joined room {}", userId, roomCode);
             
-            // Refresh room data
-            room = roomRepository.findByRoomCode(roomCode).get();
             return RoomResponseDto.success(
-                    RoomDto.fromEntity(room),
+                    toRoomDto(room),
                     "Successfully joined the roast room!"
             );
             
         } catch (RoomException e) {
             log.warn("Room join failed: {}", e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return RoomResponseDto.error(e.getMessage(), e.getErrorCode());
         } catch (Exception e) {
             log.error("Unexpected error joining room", e);
@@ -149,23 +167,23 @@ public class RoomService {
     @Transactional(readOnly = true)
     public Optional<RoomDto> getRoomByCode(String roomCode) {
         return roomRepository.findByRoomCode(roomCode.toUpperCase().trim())
-                .map(RoomDto::fromEntity);
+                .map(this::toRoomDto);
     }
 
     @Transactional(readOnly = true)
     public List<RoomDto> getUserRooms(String userId) {
-        return roomRepository.findRoomsByParticipant(userId)
+        return replicaLagGuard.readAfterOwnWrites(userId, () -> roomReadRepository.findRoomsByParticipant(userId)
                 .stream()
-                .map(RoomDto::fromEntityBasic)
-                .collect(Collectors.toList());
+                .map(RoomDto::fromView)
+                .collect(Collectors.toList()));
     }
 
     @Transactional(readOnly = true)
     public List<RoomDto> getCreatedRooms(String creatorId) {
-        return roomRepository.findByCreatorIdOrderByCreatedAtDesc(creatorId)
+        return replicaLagGuard.readAfterOwnWrites(creatorId, () -> roomReadRepository.findByCreatorIdOrderByCreatedAtDesc(creatorId)
                 .stream()
-                .map(RoomDto::fromEntityBasic)
-                .collect(Collectors.toList());
+                .map(RoomDto::fromView)
+                .collect(Collectors.toList()));
     }
 
     public RoomResponseDto leaveRoom(String roomCode, String userId) {
@@ -175,8 +193,10 @@ public class RoomService {
                     .orElseThrow(() -> new RoomException("You're not in this room", "NOT_PARTICIPANT"));
             
             // Deactivate participant
-            participant.setIsActive(false);
-            participantRepository.save(participant);
+            if (!deactivateParticipant(roomCode, userId)) {
+                throw new RoomException("You're not in this room", "NOT_PARTICIPANT");
+            }
+            replicaLagGuard.recordWrite(userId);
             
             // Send leave message
             sendSystemMessage(roomCode, String.format("👋 %s left the roast session", 
@@ -233,11 +253,13 @@ public class RoomService {
             }
             
             room = roomRepository.save(room);
+            replicaLagGuard.recordWrite(userId);
+            roomRegistry.invalidate(roomCode);
             
             log.info("Room {} settings updated by creator {}", roomCode, userId);
             
             return RoomResponseDto.success(
-                    RoomDto.fromEntity(room),
+                    toRoomDto(room),
                     "Room settings updated successfully"
             );
             
@@ -249,6 +271,17 @@ public class RoomService {
         }
     }
 
+    public boolean deactivateParticipant(String roomCode, String userId) {
+        String upperRoomCode = roomCode.toUpperCase().trim();
+        if (participantRepository.deactivateParticipant(userId, upperRoomCode) == 0) {
+            return false;
+        }
+        
+        roomRepository.releaseSeat(upperRoomCode);
+        roomRegistry.invalidate(upperRoomCode);
+        return true;
+    }
+
     public void updateParticipantActivity(String roomCode, String userId) {
         try {
             participantRepository.updateLastSeenAt(userId, roomCode.toUpperCase().trim(), LocalDateTime.now());
@@ -257,22 +290,19 @@ public class RoomService {
         }
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean isUserInRoom(String roomCode, String userId) {
-        return participantRepository.findByRoomCodeAndUserId(roomCode.toUpperCase().trim(), userId)
-                .map(participant -> participant.getIsActive())
-                .orElse(false);
+        return roomRegistry.isMember(roomCode, userId);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean canUserJoinRoom(String roomCode, String userId) {
-        Optional<RoastRoom> roomOpt = roomRepository.findByRoomCode(roomCode.toUpperCase().trim());
-        if (roomOpt.isEmpty()) {
-            return false;
-        }
-        
-        RoastRoom room = roomOpt.get();
-        return room.getIsActive() && !room.isExpired() && !room.isFull();
+        return roomRegistry.canJoin(roomCode);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean roomExists(String roomCode) {
+        return roomRegistry.find(roomCode).isPresent();
     }
 
     public void deactivateExpiredRooms() {
@@ -281,6 +311,7 @@ public class RoomService {
             for (RoastRoom room : expiredRooms) {
                 room.setIsActive(false);
                 roomRepository.save(room);
+                roomRegistry.invalidate(room.getRoomCode());
                 
                 sendSystemMessage(room.getRoomCode(), 
                         "⏰ This roast room has expired and is now closed. Thanks for the fashion fun!");
@@ -302,31 +333,6 @@ public class RoomService {
         }
     }
 
-    private String generateUniqueRoomCode() {
-        String roomCode;
-        int attempts = 0;
-        final int maxAttempts = 100;
-        
-        do {
-            roomCode = generateRoomCode();
-            attempts++;
-            
-            if (attempts > maxAttempts) {
-                throw new RoomException("Unable to generate unique room code", "CODE_GENERATION_FAILED");
-            }
-        } while (roomRepository.existsByRoomCode(roomCode));
-        
-        return roomCode;
-    }
-
-    private String generateRoomCode() {
-        StringBuilder code = new StringBuilder(8);
-        for (int i = 0; i < 8; i++) {
-            code.append(ROOM_CODE_CHARS.charAt(random.nextInt(ROOM_CODE_CHARS.length())));
-        }
-        return code.toString();
-    }
-
     private void validateRoomForJoining(RoastRoom room, String userId) {
         if (!room.getIsActive()) {
             throw new RoomException("This room is no longer active", "ROOM_INACTIVE");
@@ -351,6 +357,20 @@ public class RoomService {
                 .build();
         
         participantRepository.save(creator);
+        room.getParticipants().add(creator);
+        occupySeat(room);
+    }
+
+    // The roster is read with its own query so the room's participants collection is never loaded or filtered
+    private RoomDto toRoomDto(RoastRoom room) {
+        return RoomDto.fromEntity(room, participantRepository.findActiveParticipantsByRoomCode(room.getRoomCode()));
+    }
+
+    private void occupySeat(RoastRoom room) {
+        if (roomRepository.reserveSeat(room.getId(), LocalDateTime.now()) == 0) {
+            throw new RoomException("This room is full", "ROOM_FULL");
+        }
+        room.setActiveParticipantCount(room.getActiveParticipantCount() + 1);
     }
 
     private void sendSystemMessage(String roomCode, String content) {
@@ -362,7 +382,7 @@ public class RoomService {
                     .roomCode(roomCode)
                     .build();
             
-            chatService.saveMessage(systemMessage);
+            roomMessageBuffer.append(ChatMessageDto.fromEntity(chatService.saveMessage(systemMessage)));
         } catch (Exception e) {
             log.warn("Failed to send system message to room {}: {}", roomCode, e.getMessage());
         }
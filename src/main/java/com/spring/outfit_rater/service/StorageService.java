@@ -1,17 +1,29 @@
 package com.spring.outfit_rater.service;
 
+import com.google.cloud.WriteChannel;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import com.google.firebase.cloud.StorageClient;
+import com.spring.outfit_rater.dto.ImageUploadDto;
+import com.spring.outfit_rater.exception.UploadRejectedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @Slf4j
@@ -20,38 +32,100 @@ public class StorageService {
     @Value("${firebase.storage.bucket}")
     private String bucketName;
 
+    private final ImageProcessingService imageProcessingService;
+    private final Semaphore uploadPermits;
+    private final long uploadAcquireTimeoutMs;
+    private final int uploadChunkSize;
+
     private static final String FOLDER_NAME = "outfits/";
+    private static final String THUMBNAIL_FOLDER_NAME = "outfits/thumbs/";
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; 
+    private static final String SIGNED_URL_HOST = "storage.googleapis.com";
+    private static final int WRITE_CHANNEL_CHUNK_GRANULARITY = 256 * 1024;
+    private static final Pattern STORED_OBJECT_PATH = Pattern.compile("/([^/]+)/" + FOLDER_NAME + "([0-9a-f]{64})(\\.[^/]*)?");
+
+    public StorageService(ImageProcessingService imageProcessingService,
+                          @Value("${storage.upload.max-concurrent:8}") int maxConcurrentUploads,
+                          @Value("${storage.upload.acquire-timeout-ms:2000}") long uploadAcquireTimeoutMs,
+                          @Value("${storage.upload.chunk-size:262144}") int uploadChunkSize) {
+        this.imageProcessingService = imageProcessingService;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads, true);
+        this.uploadAcquireTimeoutMs = uploadAcquireTimeoutMs;
+        int chunks = (Math.max(uploadChunkSize, 1) + WRITE_CHANNEL_CHUNK_GRANULARITY - 1) / WRITE_CHANNEL_CHUNK_GRANULARITY;
+        this.uploadChunkSize = chunks * WRITE_CHANNEL_CHUNK_GRANULARITY;
+    }
 
-    public String uploadImage(MultipartFile file) {
+    public ImageUploadDto uploadImage(MultipartFile file) {
         validateImage(file);
+        acquireUploadPermit();
         
         try {
-            String fileName = generateFileName(file.getOriginalFilename());
-            String fullPath = FOLDER_NAME + fileName;
+            String contentDigest = computeContentDigest(file);
             
             Storage storage = StorageClient.getInstance().bucket().getStorage();
             
-            BlobId blobId = BlobId.of(bucketName, fullPath);
-            BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                    .setContentType(file.getContentType())
-                    .build();
+            BlobInfo imageBlob = blobInfo(FOLDER_NAME + contentDigest + ImageProcessingService.OUTPUT_EXTENSION,
+                    ImageProcessingService.OUTPUT_CONTENT_TYPE);
+            BlobInfo thumbnailBlob = blobInfo(THUMBNAIL_FOLDER_NAME + contentDigest + ImageProcessingService.OUTPUT_EXTENSION,
+                    ImageProcessingService.OUTPUT_CONTENT_TYPE);
 
-            storage.create(blobInfo, file.getBytes());
-            String signedUrl = storage.signUrl(
-                blobInfo, 
-                7, 
-                TimeUnit.DAYS,
-                Storage.SignUrlOption.withV4Signature()
-            ).toString();
+            if (storage.get(imageBlob.getBlobId()) != null) {
+                log.info("Image {} already stored, reusing existing blob", contentDigest);
+                if (storage.get(thumbnailBlob.getBlobId()) == null) {
+                    thumbnailBlob = null;
+                }
+            } else {
+                Optional<ImageProcessingService.ProcessedImage> processed = imageProcessingService.process(file);
+                if (processed.isPresent()) {
+                    storage.create(imageBlob, processed.get().image());
+                    storage.create(thumbnailBlob, processed.get().thumbnail());
+                    log.info("Stored processed image {} ({} -> {} bytes)", contentDigest,
+                            file.getSize(), processed.get().image().length);
+                } else {
+                    log.info("Image {} could not be decoded, streaming original bytes", contentDigest);
+                    imageBlob = blobInfo(FOLDER_NAME + contentDigest + getFileExtension(file.getOriginalFilename()),
+                            file.getContentType());
+                    thumbnailBlob = null;
+                    streamToBlob(storage, imageBlob, file);
+                }
+            }
+
+            String signedUrl = signUrl(storage, imageBlob);
+            String thumbnailUrl = thumbnailBlob != null ? signUrl(storage, thumbnailBlob) : null;
             
             log.info("Image uploaded successfully with signed URL: {}", signedUrl);
             
-            return signedUrl;
+            return ImageUploadDto.builder()
+                    .imageUrl(signedUrl)
+                    .thumbnailUrl(thumbnailUrl)
+                    .build();
             
         } catch (IOException e) {
             log.error("Failed to upload image", e);
             throw new RuntimeException("Failed to upload image: " + e.getMessage());
+        } finally {
+            uploadPermits.release();
+        }
+    }
+
+    public Optional<String> extractContentDigest(String imageUrl) {
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            URI uri = URI.create(imageUrl);
+            if (!SIGNED_URL_HOST.equalsIgnoreCase(uri.getHost()) || uri.getPath() == null) {
+                return Optional.empty();
+            }
+
+            Matcher matcher = STORED_OBJECT_PATH.matcher(uri.getPath());
+            if (!matcher.matches() || !bucketName.equals(matcher.group(1))) {
+                return Optional.empty();
+            }
+            return Optional.of(matcher.group(2));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
@@ -74,9 +148,64 @@ public class StorageService {
         }
     }
 
-    private String generateFileName(String originalFilename) {
-        String extension = getFileExtension(originalFilename);
-        return UUID.randomUUID().toString() + extension;
+    private BlobInfo blobInfo(String path, String contentType) {
+        return BlobInfo.newBuilder(BlobId.of(bucketName, path))
+                .setContentType(contentType)
+                .build();
+    }
+
+    private String signUrl(Storage storage, BlobInfo blobInfo) {
+        return storage.signUrl(
+            blobInfo, 
+            7, 
+            TimeUnit.DAYS,
+            Storage.SignUrlOption.withV4Signature()
+        ).toString();
+    }
+
+    private void acquireUploadPermit() {
+        try {
+            if (!uploadPermits.tryAcquire(uploadAcquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new UploadRejectedException("Too many uploads in progress. Please try again shortly.",
+                        UploadRejectedException.TOO_MANY_UPLOADS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UploadRejectedException("Upload was interrupted", UploadRejectedException.TOO_MANY_UPLOADS);
+        }
+    }
+
+    private void streamToBlob(Storage storage, BlobInfo blobInfo, MultipartFile file) throws IOException {
+        byte[] buffer = new byte[uploadChunkSize];
+        try (InputStream input = file.getInputStream();
+             WriteChannel channel = storage.writer(blobInfo)) {
+            channel.setChunkSize(uploadChunkSize);
+            int read;
+            while ((read = input.readNBytes(buffer, 0, buffer.length)) > 0) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+        }
+    }
+
+    private String computeContentDigest(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        byte[] buffer = new byte[uploadChunkSize];
+        try (InputStream input = file.getInputStream()) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
     private String getFileExtension(String filename) {
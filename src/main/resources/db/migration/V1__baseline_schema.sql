@@ -0,0 +1,49 @@
+-- Schema as previously generated by hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE conversations (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    VARCHAR(255) NOT NULL UNIQUE,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE roast_rooms (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_code        VARCHAR(8)   NOT NULL UNIQUE,
+    room_name        VARCHAR(100) NOT NULL,
+    description      VARCHAR(500),
+    creator_id       VARCHAR(255) NOT NULL,
+    max_participants INTEGER,
+    is_active        BOOLEAN,
+    is_private       BOOLEAN,
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL,
+    expires_at       TIMESTAMP(6)
+);
+
+CREATE TABLE room_participants (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_id      BIGINT       NOT NULL REFERENCES roast_rooms (id),
+    user_id      VARCHAR(255) NOT NULL,
+    display_name VARCHAR(255) NOT NULL,
+    role         VARCHAR(255) NOT NULL,
+    is_active    BOOLEAN,
+    joined_at    TIMESTAMP(6) NOT NULL,
+    last_seen_at TIMESTAMP(6),
+    UNIQUE (room_id, user_id)
+);
+
+CREATE TABLE chat_messages (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id        VARCHAR(255)  NOT NULL,
+    content        VARCHAR(2000) NOT NULL,
+    image_url      VARCHAR(2000),
+    type           VARCHAR(255)  NOT NULL,
+    room_code      VARCHAR(8),
+    room_id        BIGINT REFERENCES roast_rooms (id),
+    created_at     TIMESTAMP(6)  NOT NULL,
+    reaction_count INTEGER,
+    is_edited      BOOLEAN,
+    edited_at      TIMESTAMP(6)
+);
@@ -0,0 +1,23 @@
+-- Columns and tables introduced while ddl-auto=update was still in charge,
+-- written idempotently so baselined databases converge with fresh ones.
+
+ALTER TABLE chat_messages ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(2000);
+
+CREATE TABLE IF NOT EXISTS conversation_summaries (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         VARCHAR(255) NOT NULL,
+    scope           VARCHAR(8)   NOT NULL,
+    summary         VARCHAR(4000),
+    last_message_id BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6) NOT NULL,
+    UNIQUE (user_id, scope)
+);
+
+-- Message ids are allocated in blocks of 50 by ChatMessageWriter.
+ALTER TABLE chat_messages ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS chat_messages_seq INCREMENT BY 50;
+SELECT setval('chat_messages_seq',
+              GREATEST((SELECT COALESCE(MAX(id), 0) + 1 FROM chat_messages),
+                       (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM chat_messages_seq)),
+              false);
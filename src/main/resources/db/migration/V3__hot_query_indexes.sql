@@ -0,0 +1,29 @@
+-- chat_messages: history is paged by id (keyset), so indexes end in id.
+CREATE INDEX IF NOT EXISTS idx_chat_messages_global_id
+    ON chat_messages (id) WHERE room_code IS NULL;
+CREATE INDEX IF NOT EXISTS idx_chat_messages_room_id
+    ON chat_messages (room_code, id) WHERE room_code IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_chat_messages_user_global_id
+    ON chat_messages (user_id, id) WHERE room_code IS NULL;
+CREATE INDEX IF NOT EXISTS idx_chat_messages_user_room_id
+    ON chat_messages (user_id, room_code, id) WHERE room_code IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_chat_messages_created_at
+    ON chat_messages (created_at);
+
+-- roast_rooms
+CREATE INDEX IF NOT EXISTS idx_roast_rooms_creator_created
+    ON roast_rooms (creator_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_roast_rooms_active_creator_expires
+    ON roast_rooms (creator_id, expires_at) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_roast_rooms_active_expires
+    ON roast_rooms (expires_at) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_roast_rooms_public_active_expires
+    ON roast_rooms (expires_at) WHERE is_active AND NOT is_private;
+
+-- room_participants: (room_id, user_id) is already covered by the unique constraint.
+CREATE INDEX IF NOT EXISTS idx_room_participants_active_room_joined
+    ON room_participants (room_id, joined_at) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_room_participants_active_user
+    ON room_participants (user_id) WHERE is_active;
+CREATE INDEX IF NOT EXISTS idx_room_participants_active_last_seen
+    ON room_participants (last_seen_at) WHERE is_active;
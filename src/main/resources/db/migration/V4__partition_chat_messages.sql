@@ -0,0 +1,68 @@
+-- Range-partition chat_messages by created_at. The existing table becomes the
+-- partition for everything up to the end of the current month; later months get
+-- their own partitions, created ahead of time by MessageRetentionService.
+
+DROP INDEX IF EXISTS idx_chat_messages_global_id;
+DROP INDEX IF EXISTS idx_chat_messages_room_id;
+DROP INDEX IF EXISTS idx_chat_messages_user_global_id;
+DROP INDEX IF EXISTS idx_chat_messages_user_room_id;
+DROP INDEX IF EXISTS idx_chat_messages_created_at;
+
+ALTER TABLE chat_messages RENAME TO chat_messages_legacy;
+
+-- The parent's key includes the partition column, so the legacy single-column key
+-- has to be replaced before attaching. Baselined databases created by Hibernate may
+-- have named it differently, so look it up rather than assuming chat_messages_pkey.
+DO $$
+DECLARE
+    legacy_pk NAME;
+BEGIN
+    SELECT conname INTO legacy_pk
+    FROM pg_constraint
+    WHERE conrelid = 'chat_messages_legacy'::regclass AND contype = 'p';
+
+    IF legacy_pk IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE chat_messages_legacy DROP CONSTRAINT %I', legacy_pk);
+    END IF;
+END $$;
+
+ALTER TABLE chat_messages_legacy ADD PRIMARY KEY (id, created_at);
+
+CREATE TABLE chat_messages (
+    id             BIGINT        NOT NULL,
+    user_id        VARCHAR(255)  NOT NULL,
+    content        VARCHAR(2000) NOT NULL,
+    image_url      VARCHAR(2000),
+    thumbnail_url  VARCHAR(2000),
+    type           VARCHAR(255)  NOT NULL,
+    room_code      VARCHAR(8),
+    room_id        BIGINT REFERENCES roast_rooms (id),
+    created_at     TIMESTAMP(6)  NOT NULL,
+    reaction_count INTEGER,
+    is_edited      BOOLEAN,
+    edited_at      TIMESTAMP(6),
+    CONSTRAINT pk_chat_messages PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    cutover TIMESTAMP := date_trunc('month', now()) + INTERVAL '1 month';
+BEGIN
+    EXECUTE format('ALTER TABLE chat_messages ATTACH PARTITION chat_messages_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   cutover);
+    EXECUTE format('CREATE TABLE chat_messages_p%s PARTITION OF chat_messages FOR VALUES FROM (%L) TO (%L)',
+                   to_char(cutover, 'YYYYMM'), cutover, cutover + INTERVAL '1 month');
+END $$;
+
+CREATE TABLE chat_messages_default PARTITION OF chat_messages DEFAULT;
+
+CREATE INDEX idx_chat_messages_global_id
+    ON chat_messages (id) WHERE room_code IS NULL;
+CREATE INDEX idx_chat_messages_room_id
+    ON chat_messages (room_code, id) WHERE room_code IS NOT NULL;
+CREATE INDEX idx_chat_messages_user_global_id
+    ON chat_messages (user_id, id) WHERE room_code IS NULL;
+CREATE INDEX idx_chat_messages_user_room_id
+    ON chat_messages (user_id, room_code, id) WHERE room_code IS NOT NULL;
+CREATE INDEX idx_chat_messages_created_at
+    ON chat_messages (created_at);
@@ -0,0 +1,13 @@
+-- Maintained count of active participants; joins and leaves adjust it with
+-- conditional single-row updates so capacity checks never scan participants.
+ALTER TABLE roast_rooms ADD COLUMN active_participant_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE roast_rooms r
+SET active_participant_count = (
+    SELECT COUNT(*)
+    FROM room_participants p
+    WHERE p.room_id = r.id AND p.is_active
+);
+
+ALTER TABLE roast_rooms
+    ADD CONSTRAINT roast_rooms_active_participant_count_check CHECK (active_participant_count >= 0);
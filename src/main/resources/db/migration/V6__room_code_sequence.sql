@@ -0,0 +1,8 @@
+-- Room codes are a keyed permutation of this sequence, so every value yields a
+-- distinct code. Nodes reserve blocks of 100 values per nextval call.
+CREATE SEQUENCE IF NOT EXISTS room_code_seq
+    INCREMENT BY 100
+    MINVALUE 0
+    MAXVALUE 2821109907455
+    START WITH 0
+    NO CYCLE;
@@ -0,0 +1,195 @@
+package com.spring.outfit_rater.repository;
+
+import com.spring.outfit_rater.model.ChatMessage;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.spring.outfit_rater.repository.RepositoryIndexUsageTests$CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class RepositoryIndexUsageTests {
+
+	private static final String ROOM_CODE_KEY = "roast_rooms_room_code_key";
+
+	private static final String PARTICIPANT_KEY = "room_participants_room_id_user_id_key";
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ChatMessageRepository messageRepository;
+
+	@Autowired
+	private ChatMessageReadRepository messageReadRepository;
+
+	@Autowired
+	private RoastRoomRepository roomRepository;
+
+	@Autowired
+	private RoastRoomReadRepository roomReadRepository;
+
+	@Autowired
+	private RoomParticipantRepository participantRepository;
+
+	@Autowired
+	private ConversationRepository conversationRepository;
+
+	@Autowired
+	private ConversationSummaryRepository summaryRepository;
+
+	@BeforeEach
+	void clearCapturedStatements() {
+		CapturingStatementInspector.STATEMENTS.clear();
+	}
+
+	@Test
+	void chatMessageQueriesUseIndexes() {
+		assertIndexed(() -> messageReadRepository.findRecentGlobalMessages(), "idx_chat_messages_global_id");
+		assertIndexed(() -> messageReadRepository.findRoomMessagesBefore("ABC123", Long.MAX_VALUE, 50), "idx_chat_messages_room_id");
+		assertIndexed(() -> messageReadRepository.findRoomMessagesAfter("ABC123", 0L, 50), "idx_chat_messages_room_id");
+		assertIndexed(() -> messageReadRepository.findGlobalMessagesByUserIdBefore("user", Long.MAX_VALUE, 50),
+				"idx_chat_messages_user_global_id");
+		assertIndexed(() -> messageRepository.findRecentGlobalMessagesByUserId("user", 10), "idx_chat_messages_user_global_id");
+		assertIndexed(() -> messageRepository.findRecentRoomMessagesByUserId("user", "ABC123", 10),
+				"idx_chat_messages_user_room_id");
+		assertIndexed(() -> messageRepository.findGlobalMessagesByUserIdAfter("user", 0L, 50), "idx_chat_messages_user_global_id");
+		assertIndexed(() -> messageRepository.findRoomMessagesByUserIdAfter("user", "ABC123", 0L, 50),
+				"idx_chat_messages_user_room_id");
+		assertIndexed(() -> messageReadRepository.findGlobalMessagesByUserIdAfter("user", 0L, 50),
+				"idx_chat_messages_user_global_id");
+		assertIndexed(() -> messageReadRepository.findRoomMessagesByUserIdAfter("user", "ABC123", 0L, 50),
+				"idx_chat_messages_user_room_id");
+		assertIndexed(() -> messageReadRepository.findRoomMessagesByUserIdBefore("user", "ABC123", Long.MAX_VALUE, 50),
+				"idx_chat_messages_user_room_id");
+		assertIndexed(() -> messageRepository.findTop100ByOrderByCreatedAtDesc(), "idx_chat_messages_created_at");
+		assertIndexed(() -> messageRepository.countMessagesByRoomCode("ABC123"), "idx_chat_messages_room_id");
+		assertIndexed(() -> messageRepository.findByRoomCodeAndType("ABC123", ChatMessage.MessageType.OUTFIT),
+				"idx_chat_messages_room_id");
+	}
+
+	@Test
+	void roomQueriesUseIndexes() {
+		LocalDateTime now = LocalDateTime.now();
+		assertIndexed(() -> roomRepository.findByRoomCode("ABC123"), ROOM_CODE_KEY);
+		assertIndexed(() -> roomReadRepository.findByCreatorIdOrderByCreatedAtDesc("user"), "idx_roast_rooms_creator_created");
+		assertIndexed(() -> roomRepository.findActiveRooms(now), "idx_roast_rooms_active_expires");
+		assertIndexed(() -> roomRepository.findPublicActiveRooms(now), "idx_roast_rooms_public_active_expires");
+		assertIndexed(() -> roomRepository.findExpiredRooms(now), "idx_roast_rooms_active_expires");
+		assertIndexed(() -> roomRepository.countActiveRoomsByCreator("user", now), "idx_roast_rooms_active_creator_expires");
+		assertIndexed(() -> roomReadRepository.findRoomsByParticipant("user"),
+				"idx_room_participants_active_user", "roast_rooms_pkey");
+		assertIndexed(() -> roomReadRepository.findByRoomCodeIn(List.of("ABC123", "DEF456")), ROOM_CODE_KEY);
+		assertIndexed(() -> roomRepository.reserveSeat(1L, now), "roast_rooms_pkey");
+		assertIndexed(() -> roomRepository.releaseSeat("ABC123"), ROOM_CODE_KEY);
+	}
+
+	@Test
+	void participantQueriesUseIndexes() {
+		LocalDateTime now = LocalDateTime.now();
+		assertIndexed(() -> participantRepository.findByRoomCodeAndUserId("ABC123", "user"), ROOM_CODE_KEY, PARTICIPANT_KEY);
+		assertIndexed(() -> participantRepository.findActiveParticipantsByRoomCode("ABC123"),
+				ROOM_CODE_KEY, "idx_room_participants_active_room_joined");
+		assertIndexed(() -> participantRepository.isActiveParticipant(1L, "user"), PARTICIPANT_KEY);
+		assertIndexed(() -> participantRepository.findActiveParticipantsByUserId("user"), "idx_room_participants_active_user");
+		assertIndexed(() -> participantRepository.countActiveParticipantsByRoomCode("ABC123"),
+				ROOM_CODE_KEY, "idx_room_participants_active_room_joined");
+		assertIndexed(() -> participantRepository.updateLastSeenAt("user", "ABC123", now), ROOM_CODE_KEY, PARTICIPANT_KEY);
+		assertIndexed(() -> participantRepository.deactivateParticipant("user", "ABC123"), ROOM_CODE_KEY, PARTICIPANT_KEY);
+		assertIndexed(() -> participantRepository.reactivateParticipant(1L, "user", now), PARTICIPANT_KEY);
+		assertIndexed(() -> participantRepository.findInactiveParticipants(now), "idx_room_participants_active_last_seen");
+	}
+
+	@Test
+	void conversationQueriesUseIndexes() {
+		assertIndexed(() -> conversationRepository.findByUserId("user"), "conversations_user_id_key");
+		assertIndexed(() -> summaryRepository.findByUserIdAndScope("user", "GLOBAL"), "conversation_summaries_user_id_scope_key");
+	}
+
+	private void assertIndexed(Runnable query, String... expectedIndexes) {
+		CapturingStatementInspector.STATEMENTS.clear();
+		query.run();
+		List<String> statements = List.copyOf(CapturingStatementInspector.STATEMENTS);
+		assertThat(statements).as("captured SQL").isNotEmpty();
+
+		StringBuilder plans = new StringBuilder();
+		for (String sql : statements) {
+			String plan = explain(sql);
+			assertThat(plan).as("plan for %s", sql).doesNotContain("Seq Scan");
+			plans.append(plan).append('\n');
+		}
+
+		for (String index : expectedIndexes) {
+			assertThat(indexAndPartitions(index))
+					.as("%s in plans for %s:%n%s", index, statements, plans)
+					.anyMatch(name -> plans.indexOf(" " + name + " ") >= 0);
+		}
+	}
+
+	// Scans on a partitioned table name the per-partition indexes attached to the parent index
+	private List<String> indexAndPartitions(String index) {
+		return entityManager.createNativeQuery("SELECT c.relname FROM pg_partition_tree(CAST(:index AS regclass)) t "
+				+ "JOIN pg_class c ON c.oid = t.relid", String.class)
+				.setParameter("index", index)
+				.getResultList();
+	}
+
+	private String explain(String sql) {
+		StringBuilder numbered = new StringBuilder();
+		int parameter = 0;
+		for (char c : sql.toCharArray()) {
+			if (c == '?') {
+				numbered.append('$').append(++parameter);
+			} else {
+				numbered.append(c);
+			}
+		}
+
+		List<String> lines = new ArrayList<>();
+		entityManager.unwrap(Session.class).doWork(connection -> {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("SET LOCAL enable_seqscan = off");
+				try (ResultSet plan = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+					while (plan.next()) {
+						lines.add(plan.getString(1));
+					}
+				}
+			}
+		});
+		return String.join("\n", lines);
+	}
+
+	public static class CapturingStatementInspector implements StatementInspector {
+
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+}
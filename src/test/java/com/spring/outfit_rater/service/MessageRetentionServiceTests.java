@@ -0,0 +1,128 @@
+package com.spring.outfit_rater.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs inside the test transaction, so the partition surgery below is rolled back after each test
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MessageRetentionService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Testcontainers
+class MessageRetentionServiceTests {
+
+	private static final String OLD_PARTITION = "chat_messages_p202001";
+
+	private static final int MONTHS_AHEAD = 2;
+
+	private static final Path ARCHIVE_DIR = createArchiveDir();
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@DynamicPropertySource
+	static void retentionProperties(DynamicPropertyRegistry registry) {
+		registry.add("chat.retention.archive-dir", ARCHIVE_DIR::toString);
+		registry.add("chat.retention.months-ahead", () -> MONTHS_AHEAD);
+	}
+
+	@Autowired
+	private MessageRetentionService retentionService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createOldPartition() {
+		// The legacy partition from V4 covers everything before the migration; free January 2020 for a partition of its own
+		jdbcTemplate.execute("ALTER TABLE chat_messages DETACH PARTITION chat_messages_legacy");
+		jdbcTemplate.execute("CREATE TABLE " + OLD_PARTITION + " PARTITION OF chat_messages "
+				+ "FOR VALUES FROM ('2020-01-01 00:00:00') TO ('2020-02-01 00:00:00')");
+	}
+
+	@Test
+	void archivesAndDropsOldPartitionWhoseRoomsHaveExpired() {
+		insertRoom("EXPIRED1", LocalDateTime.of(2020, 1, 2, 0, 0));
+		insertMessage(1L, "EXPIRED1", LocalDateTime.of(2020, 1, 1, 12, 0));
+		insertMessage(2L, null, LocalDateTime.of(2020, 1, 15, 12, 0));
+
+		retentionService.archiveExpiredPartitions();
+
+		assertThat(partitionExists(OLD_PARTITION)).isFalse();
+		assertThat(ARCHIVE_DIR.resolve(OLD_PARTITION + ".ndjson.gz")).exists();
+	}
+
+	@Test
+	void keepsOldPartitionWithMessagesFromRoomsStillOpen() {
+		insertRoom("OPEN0001", LocalDateTime.now().plusDays(1));
+		insertMessage(1L, "OPEN0001", LocalDateTime.of(2020, 1, 1, 12, 0));
+
+		retentionService.archiveExpiredPartitions();
+
+		assertThat(partitionExists(OLD_PARTITION)).isTrue();
+	}
+
+	@Test
+	void movesStrandedRowsOutOfDefaultPartitionWhenCreatingTheirMonth() {
+		LocalDateTime lastMonth = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay()
+				.plusMonths(MONTHS_AHEAD);
+		String lastPartition = "chat_messages_p" + lastMonth.format(DateTimeFormatter.ofPattern("yyyyMM"));
+		retentionService.createUpcomingPartitions();
+		jdbcTemplate.execute("ALTER TABLE chat_messages DETACH PARTITION " + lastPartition);
+		jdbcTemplate.execute("DROP TABLE " + lastPartition);
+		insertMessage(1L, null, lastMonth.plusDays(3));
+
+		retentionService.createUpcomingPartitions();
+
+		assertThat(partitionExists(lastPartition)).isTrue();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM chat_messages_default", Long.class)).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + lastPartition, Long.class)).isEqualTo(1L);
+	}
+
+	private void insertRoom(String roomCode, LocalDateTime expiresAt) {
+		jdbcTemplate.update("INSERT INTO roast_rooms (room_code, room_name, creator_id, max_participants, is_active, "
+				+ "is_private, created_at, updated_at, expires_at) VALUES (?, 'Room', 'creator', 20, true, false, ?, ?, ?)",
+				roomCode, expiresAt.minusDays(1), expiresAt.minusDays(1), expiresAt);
+	}
+
+	private void insertMessage(long id, String roomCode, LocalDateTime createdAt) {
+		jdbcTemplate.update("INSERT INTO chat_messages (id, user_id, content, type, room_code, created_at) "
+				+ "VALUES (?, 'user', 'hello', 'USER', ?, ?)", id, roomCode, createdAt);
+	}
+
+	private boolean partitionExists(String partition) {
+		return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+				"SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition));
+	}
+
+	private static Path createArchiveDir() {
+		try {
+			return Files.createTempDirectory("chat-archive");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
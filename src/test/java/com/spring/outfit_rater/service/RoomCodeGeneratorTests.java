@@ -0,0 +1,40 @@
+package com.spring.outfit_rater.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomCodeGeneratorTests {
+
+	private static final int SAMPLE_SIZE = 20_000;
+
+	private final RoomCodeGenerator generator = new RoomCodeGenerator(null, "test-secret");
+
+	@Test
+	void codesAreUniqueWellFormedCodesAcrossTheSequence() {
+		LongStream values = LongStream.concat(
+				LongStream.range(0, SAMPLE_SIZE),
+				LongStream.range(RoomCodeGenerator.CODE_SPACE - SAMPLE_SIZE, RoomCodeGenerator.CODE_SPACE));
+
+		Set<String> codes = new HashSet<>();
+		values.forEach(value -> {
+			String code = generator.codeFor(value);
+			assertThat(code).matches("[A-Z0-9]{8}");
+			assertThat(codes.add(code)).as("duplicate code %s for sequence value %d", code, value).isTrue();
+		});
+
+		assertThat(codes).hasSize(2 * SAMPLE_SIZE);
+	}
+
+	@Test
+	void codesDependOnTheSecret() {
+		RoomCodeGenerator otherSecret = new RoomCodeGenerator(null, "other-secret");
+
+		assertThat(generator.codeFor(42)).isEqualTo(generator.codeFor(42));
+		assertThat(otherSecret.codeFor(42)).isNotEqualTo(generator.codeFor(42));
+	}
+}